@@ -0,0 +1,89 @@
+package com.github.danny02.benchmark;
+
+import com.github.danny02.annotation.Short;
+import com.github.danny02.extension.TimeLimitExtension;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CategoryLookupBenchmark {
+
+    @Short
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Level1 {
+    }
+
+    @Level1
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Level2 {
+    }
+
+    @Level2
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Level3 {
+    }
+
+    @Level3
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Level4 {
+    }
+
+    @Short
+    static class CategorizedClass {
+        void uncategorizedMethod() {
+        }
+    }
+
+    @Short
+    void directlyAnnotated() {
+    }
+
+    @Level4
+    void deeplyMetaAnnotated() {
+    }
+
+    TimeLimitExtension extension;
+    Method             direct, deep, onClass;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        extension = new TimeLimitExtension();
+        direct = CategoryLookupBenchmark.class.getDeclaredMethod("directlyAnnotated");
+        deep = CategoryLookupBenchmark.class.getDeclaredMethod("deeplyMetaAnnotated");
+        onClass = CategorizedClass.class.getDeclaredMethod("uncategorizedMethod");
+    }
+
+    @Benchmark
+    public Optional<String> directAnnotation() {
+        return extension.getCategoryFromAnnotation(direct);
+    }
+
+    @Benchmark
+    public Optional<String> deepMetaAnnotation() {
+        return extension.getCategoryFromAnnotation(deep);
+    }
+
+    @Benchmark
+    public Optional<String> classAnnotation() {
+        return extension.getCategoryFromAnnotation(onClass);
+    }
+}
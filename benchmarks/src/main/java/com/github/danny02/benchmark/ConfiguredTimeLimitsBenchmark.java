@@ -0,0 +1,104 @@
+package com.github.danny02.benchmark;
+
+import com.github.danny02.extension.BatchVerdicts;
+import com.github.danny02.extension.ConfiguredTimeLimits;
+import com.github.danny02.extension.TimeoutBound;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ConfiguredTimeLimitsBenchmark {
+    static final int BATCH_SIZE = 1024;
+
+    @Param({"false", "true"})
+    boolean overridden;
+
+    @Param({"4", "64"})
+    int categories;
+
+    ConfiguredTimeLimits timeLimits;
+    Duration             runtime;
+    long[]               runtimes;
+    int[]                categoryIds;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> parameters = new HashMap<>();
+        if (overridden) {
+            parameters.put("com.github.danny02.timeout.short.lower", "10");
+            parameters.put("com.github.danny02.timeout.short.upper", "200");
+        }
+
+        Map<String, TimeoutBound> defaults = new HashMap<>();
+        for (int i = 0; i < categories; i++) {
+            defaults.put("category" + i, TimeoutBound.fromMs(i * 100, (i + 2) * 100));
+        }
+        defaults.put("short", TimeoutBound.fromMs(0, 100));
+
+        timeLimits = new ConfiguredTimeLimits(
+                category -> Optional.ofNullable(parameters.get("com.github.danny02.timeout." + category + ".lower"))
+                                    .map(ms -> Duration.ofMillis(Long.parseLong(ms))),
+                category -> Optional.ofNullable(parameters.get("com.github.danny02.timeout." + category + ".upper"))
+                                    .map(ms -> Duration.ofMillis(Long.parseLong(ms))),
+                defaults);
+        runtime = Duration.ofMillis(categories * 50L);
+
+        Random random = new Random(42);
+        runtimes = new long[BATCH_SIZE];
+        categoryIds = new int[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            runtimes[i] = TimeUnit.MILLISECONDS.toNanos(random.nextInt(categories * 100));
+        }
+    }
+
+    @Benchmark
+    public TimeoutBound lookUpBounds() {
+        return timeLimits.lookUpBounds("short");
+    }
+
+    @Benchmark
+    public Optional<String> smallestDefaultCategoryForDuration() {
+        return timeLimits.smallestDefaultCategoryForDuration(runtime);
+    }
+
+    /**
+     * Compare with {@link #validateEach()}, both validate and suggest a category for {@value #BATCH_SIZE} runs.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchVerdicts validateAll() {
+        return timeLimits.validateAll(runtimes, categoryIds, "short");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void validateEach(Blackhole blackhole) {
+        for (long runtime : runtimes) {
+            blackhole.consume(timeLimits.validateRuntime(runtime, "short"));
+            blackhole.consume(timeLimits.smallestDefaultCategoryForDuration(Duration.ofNanos(runtime)));
+        }
+    }
+}
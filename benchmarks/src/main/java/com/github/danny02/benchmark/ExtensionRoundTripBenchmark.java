@@ -0,0 +1,57 @@
+package com.github.danny02.benchmark;
+
+import com.github.danny02.annotation.Short;
+import com.github.danny02.extension.TimeLimitExtension;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The overhead the extension adds to every single categorized test.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ExtensionRoundTripBenchmark {
+
+    @Param({"false", "true"})
+    boolean enforce;
+
+    TimeLimitExtension   extension;
+    StubExtensionContext testContext;
+
+    @Short
+    void categorizedTest() {
+    }
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        extension = new TimeLimitExtension();
+        StubExtensionContext root = StubExtensionContext.root(Map.of("com.github.danny02.timelimit.enforce",
+                                                                     String.valueOf(enforce)));
+        testContext = root.child(ExtensionRoundTripBenchmark.class.getDeclaredMethod("categorizedTest"));
+        extension.beforeAll(root);
+    }
+
+    @Benchmark
+    public void perTestCallbacks() {
+        extension.beforeEach(testContext);
+        extension.beforeTestExecution(testContext);
+        extension.afterTestExecution(testContext);
+        extension.afterEach(testContext);
+    }
+}
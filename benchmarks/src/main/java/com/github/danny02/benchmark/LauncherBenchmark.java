@@ -0,0 +1,73 @@
+package com.github.danny02.benchmark;
+
+import com.github.danny02.annotation.Short;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+/**
+ * A whole engine run of 10k trivial tests, with and without the extension registered.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LauncherBenchmark {
+    static final int TESTS = 10_000;
+
+    public static class SyntheticTests {
+
+        @Short
+        @RepeatedTest(TESTS)
+        void syntheticTest() {
+        }
+    }
+
+    @Param({"false", "true"})
+    boolean extensionEnabled;
+
+    Launcher                 launcher;
+    LauncherDiscoveryRequest request;
+
+    @Setup
+    public void setUp() {
+        launcher = LauncherFactory.create();
+        request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(selectClass(SyntheticTests.class))
+                .configurationParameters(Map.of("junit.jupiter.extensions.autodetection.enabled",
+                                                String.valueOf(extensionEnabled)))
+                .build();
+    }
+
+    @Benchmark
+    public long executeTests() {
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.execute(request, listener);
+        if (listener.getSummary().getTestsSucceededCount() != TESTS) {
+            throw new IllegalStateException("not all synthetic tests succeeded: " + listener.getSummary().getFailures());
+        }
+        return listener.getSummary().getTestsSucceededCount();
+    }
+}
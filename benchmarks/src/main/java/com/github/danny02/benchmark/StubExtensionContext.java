@@ -0,0 +1,175 @@
+package com.github.danny02.benchmark;
+
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestInstances;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Just enough of an {@link ExtensionContext} to drive the extension callbacks without an engine,
+ * so the benchmarks only measure the extension itself.
+ */
+class StubExtensionContext implements ExtensionContext {
+    private final StubExtensionContext    parent;
+    private final Method                  testMethod;
+    private final Map<String, String>     parameters;
+    private final Map<Namespace, StubStore> stores = new HashMap<>();
+
+    private StubExtensionContext(StubExtensionContext parent, Method testMethod, Map<String, String> parameters) {
+        this.parent = parent;
+        this.testMethod = testMethod;
+        this.parameters = parameters;
+    }
+
+    static StubExtensionContext root(Map<String, String> parameters) {
+        return new StubExtensionContext(null, null, parameters);
+    }
+
+    StubExtensionContext child(Method testMethod) {
+        return new StubExtensionContext(this, testMethod, parameters);
+    }
+
+    @Override
+    public Optional<ExtensionContext> getParent() {
+        return Optional.ofNullable(parent);
+    }
+
+    @Override
+    public ExtensionContext getRoot() {
+        return parent == null ? this : parent.getRoot();
+    }
+
+    @Override
+    public String getUniqueId() {
+        return testMethod == null ? "[engine:stub]" : "[engine:stub]/[method:" + testMethod.getName() + "()]";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return getUniqueId();
+    }
+
+    @Override
+    public Set<String> getTags() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Optional<AnnotatedElement> getElement() {
+        return Optional.ofNullable(testMethod);
+    }
+
+    @Override
+    public Optional<Class<?>> getTestClass() {
+        return Optional.ofNullable(testMethod).map(Method::getDeclaringClass);
+    }
+
+    @Override
+    public Optional<Lifecycle> getTestInstanceLifecycle() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Object> getTestInstance() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<TestInstances> getTestInstances() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Method> getTestMethod() {
+        return Optional.ofNullable(testMethod);
+    }
+
+    @Override
+    public Optional<Throwable> getExecutionException() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<String> getConfigurationParameter(String key) {
+        return Optional.ofNullable(parameters.get(key));
+    }
+
+    @Override
+    public <T> Optional<T> getConfigurationParameter(String key, Function<String, T> transformer) {
+        return getConfigurationParameter(key).map(transformer);
+    }
+
+    @Override
+    public void publishReportEntry(Map<String, String> map) {
+    }
+
+    @Override
+    public Store getStore(Namespace namespace) {
+        return stores.computeIfAbsent(namespace, ns -> new StubStore(parent == null ? null : parent.getStore(ns)));
+    }
+
+    @Override
+    public ExecutionMode getExecutionMode() {
+        return ExecutionMode.SAME_THREAD;
+    }
+
+    private static class StubStore implements Store {
+        private final Store               parent;
+        private final Map<Object, Object> values = new HashMap<>();
+
+        StubStore(Store parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Object value = values.get(key);
+            return value != null || parent == null ? value : parent.get(key);
+        }
+
+        @Override
+        public <V> V get(Object key, Class<V> requiredType) {
+            return requiredType.cast(get(key));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object getOrComputeIfAbsent(K key, Function<K, V> defaultCreator) {
+            Object value = get(key);
+            if (value == null) {
+                value = defaultCreator.apply(key);
+                values.put(key, value);
+            }
+            return value;
+        }
+
+        @Override
+        public <K, V> V getOrComputeIfAbsent(K key, Function<K, V> defaultCreator, Class<V> requiredType) {
+            return requiredType.cast(getOrComputeIfAbsent(key, defaultCreator));
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return values.remove(key);
+        }
+
+        @Override
+        public <V> V remove(Object key, Class<V> requiredType) {
+            return requiredType.cast(remove(key));
+        }
+    }
+}
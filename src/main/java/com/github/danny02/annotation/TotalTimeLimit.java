@@ -0,0 +1,16 @@
+package com.github.danny02.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The upper bound of the category is a budget for all invocations of a repeated or parameterized
+ * test together, or for the whole test class when it is put on a class.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TotalTimeLimit {
+    String value();
+}
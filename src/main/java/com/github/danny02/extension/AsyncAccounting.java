@@ -0,0 +1,32 @@
+package com.github.danny02.extension;
+
+import java.util.Locale;
+
+/**
+ * Whether the threads a test hands work to are accounted for. The CPU time of all other threads and the
+ * threads started by a test are JVM wide, so the accounting is only precise when tests don't run in parallel.
+ */
+enum AsyncAccounting {
+    /**
+     * Only the test thread is measured.
+     */
+    OFF,
+    /**
+     * The CPU time other threads used while the test ran and threads still running after it are published as
+     * report entries.
+     */
+    REPORT,
+    /**
+     * Like report, but a test fails if threads it started are still running after it.
+     */
+    FAIL;
+
+    static AsyncAccounting parse(String value, String key) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("unknown value '" + value + "' for configuration parameter '" + key + "', " +
+                                       "expected off, report or fail", e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.danny02.extension;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The runtimes of a previous run, read from its {@link TimingReport timing report}, to catch tests which got
+ * slower while still completing within their category.
+ * <p>
+ * The runtimes are kept in an open addressing hash table of parallel arrays, so even a baseline of a huge
+ * suite costs two arrays and a lookup never allocates.
+ */
+final class Baseline {
+    static final long MISSING = -1;
+
+    private final String[] ids;
+    private final long[]   runtimes;
+    private final int      size;
+    private final double   tolerance;
+    private final long     slackNanos;
+
+    private Baseline(String[] ids, long[] runtimes, int size, double tolerance, long slackNanos) {
+        this.ids = ids;
+        this.runtimes = runtimes;
+        this.size = size;
+        this.tolerance = tolerance;
+        this.slackNanos = slackNanos;
+    }
+
+    /**
+     * @param tolerance  a runtime up to this fraction slower or faster than the baseline is unchanged
+     * @param slackNanos is added to the tolerated difference, so tests of a few milliseconds don't flip on noise
+     */
+    static Baseline read(Path report, double tolerance, long slackNanos) {
+        try (BufferedReader in = Files.newBufferedReader(report, StandardCharsets.UTF_8)) {
+            String[] ids      = new String[64];
+            long[]   runtimes = new long[64];
+            int      size     = 0;
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                String id      = TimingReport.stringField(line, "id");
+                long   runtime = TimingReport.longField(line, "runtimeNanos");
+                if (id == null || runtime < 0) {
+                    continue;
+                }
+                // stay at most half full
+                if (size * 2 >= ids.length) {
+                    String[] grownIds      = new String[ids.length * 2];
+                    long[]   grownRuntimes = new long[ids.length * 2];
+                    for (int i = 0; i < ids.length; i++) {
+                        if (ids[i] != null) {
+                            put(grownIds, grownRuntimes, ids[i], runtimes[i]);
+                        }
+                    }
+                    ids = grownIds;
+                    runtimes = grownRuntimes;
+                }
+                if (put(ids, runtimes, id, runtime)) {
+                    size++;
+                }
+            }
+            return new Baseline(ids, runtimes, size, tolerance, slackNanos);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read baseline " + report, e);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("malformed baseline " + report + ", expected a timing report", e);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the runtime of the test in the baseline or {@link #MISSING}
+     */
+    long runtimeNanos(String testId) {
+        int mask = ids.length - 1;
+        for (int i = slot(testId, mask); ids[i] != null; i = (i + 1) & mask) {
+            if (ids[i].equals(testId)) {
+                return runtimes[i];
+            }
+        }
+        return MISSING;
+    }
+
+    boolean isRegression(long runtimeNanos, long baselineNanos) {
+        return runtimeNanos - baselineNanos > allowedDifference(baselineNanos);
+    }
+
+    boolean isImprovement(long runtimeNanos, long baselineNanos) {
+        return baselineNanos - runtimeNanos > allowedDifference(baselineNanos);
+    }
+
+    private long allowedDifference(long baselineNanos) {
+        return (long) (baselineNanos * tolerance) + slackNanos;
+    }
+
+    /**
+     * @return whether the id was new, a later line of the same test replaces its runtime
+     */
+    private static boolean put(String[] ids, long[] runtimes, String id, long runtime) {
+        int mask = ids.length - 1;
+        int i    = slot(id, mask);
+        while (ids[i] != null && !ids[i].equals(id)) {
+            i = (i + 1) & mask;
+        }
+        boolean added = ids[i] == null;
+        ids[i] = id;
+        runtimes[i] = runtime;
+        return added;
+    }
+
+    private static int slot(String id, int mask) {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Tallies the comparisons of the tests of a class.
+     */
+    static final class ClassTally {
+        final AtomicInteger regressions   = new AtomicInteger();
+        final AtomicInteger improvements  = new AtomicInteger();
+        final AtomicInteger compared      = new AtomicInteger();
+        final AtomicLong    runtimeNanos  = new AtomicLong();
+        final AtomicLong    baselineNanos = new AtomicLong();
+    }
+}
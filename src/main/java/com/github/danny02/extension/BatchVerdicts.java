@@ -0,0 +1,39 @@
+package com.github.danny02.extension;
+
+import java.util.Optional;
+
+/**
+ * The verdicts of {@link ConfiguredTimeLimits#validateAll}, kept in primitive arrays indexed by run.
+ */
+public final class BatchVerdicts {
+    private final String[]  defaultCategories;
+    private final boolean[] inBound;
+    private final int[]     suggested;
+    private final int       violations;
+
+    BatchVerdicts(String[] defaultCategories, boolean[] inBound, int[] suggested, int violations) {
+        this.defaultCategories = defaultCategories;
+        this.inBound = inBound;
+        this.suggested = suggested;
+        this.violations = violations;
+    }
+
+    public int size() {
+        return inBound.length;
+    }
+
+    public int violations() {
+        return violations;
+    }
+
+    public boolean isInBound(int run) {
+        return inBound[run];
+    }
+
+    /**
+     * @return the smallest default category the runtime of the run fits in
+     */
+    public Optional<String> suggestedCategory(int run) {
+        return suggested[run] < 0 ? Optional.empty() : Optional.of(defaultCategories[suggested[run]]);
+    }
+}
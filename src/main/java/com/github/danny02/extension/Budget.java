@@ -0,0 +1,29 @@
+package com.github.danny02.extension;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+final class Budget {
+    final String category;
+    final long   limitNanos;
+    final long   startNanos;
+
+    private final AtomicLong spentNanos = new AtomicLong();
+
+    Budget(String category, TimeoutBound bounds, long startNanos) {
+        this.category = category;
+        this.limitNanos = bounds.upperNanos;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * @return true only for the spending which exceeded the budget, so just one invocation gets blamed
+     */
+    boolean spend(long nanos) {
+        long before = spentNanos.getAndAdd(nanos);
+        return before <= limitNanos && before + nanos > limitNanos;
+    }
+
+    long spentNanos() {
+        return spentNanos.get();
+    }
+}
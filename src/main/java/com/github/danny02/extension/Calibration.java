@@ -0,0 +1,54 @@
+package com.github.danny02.extension;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Estimates how much slower the current machine is than the one the time limits were chosen on,
+ * by timing a small fixed CPU and memory bound workload.
+ */
+class Calibration {
+    static final Duration DEFAULT_REFERENCE = Duration.ofMillis(3);
+
+    private static final int WARMUP_ROUNDS   = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int WORKLOAD_SIZE   = 1 << 16;
+
+    private final Ticker ticker;
+
+    Calibration(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * @return the factor by which time limits should be stretched on this machine, never below 1
+     */
+    double measureSpeedFactor(Duration reference) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            workload();
+        }
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = ticker.read();
+            workload();
+            fastest = Math.min(fastest, ticker.read() - start);
+        }
+        return Math.max(1, (double) fastest / reference.toNanos());
+    }
+
+    static long workload() {
+        int[] values = new int[WORKLOAD_SIZE];
+        int   seed   = 42;
+        for (int i = 0; i < values.length; i++) {
+            seed = seed * 1_103_515_245 + 12_345;
+            values[i] = seed;
+        }
+        Arrays.sort(values);
+
+        long checksum = 0;
+        for (int i = 0; i < values.length; i += 97) {
+            checksum += values[i];
+        }
+        return checksum;
+    }
+}
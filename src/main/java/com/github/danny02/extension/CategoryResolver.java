@@ -0,0 +1,91 @@
+package com.github.danny02.extension;
+
+import com.github.danny02.annotation.TimeLimit;
+import com.github.danny02.annotation.TotalTimeLimit;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.platform.commons.support.AnnotationSupport.findAnnotation;
+
+/**
+ * Resolves the category of a test method once and caches it with its declaring class, so
+ * repeated and parameterized tests don't walk the meta-annotations on every invocation.
+ * <p>
+ * A category on the method wins over one on its class, which wins over the ones on the
+ * interfaces and the superclass of the class and finally over the one of an enclosing class
+ * of a {@code @Nested} test class.
+ */
+public final class CategoryResolver {
+    private static final ClassValue<ResolvedClass> CLASSES = new ClassValue<ResolvedClass>() {
+        @Override
+        protected ResolvedClass computeValue(Class<?> type) {
+            return new ResolvedClass(resolveClass(type));
+        }
+    };
+
+    private CategoryResolver() {
+    }
+
+    public static Optional<String> categoryOf(Method testMethod) {
+        ResolvedClass declaringClass = CLASSES.get(testMethod.getDeclaringClass());
+        return declaringClass.methods.computeIfAbsent(testMethod, method -> findCategory(method)
+                .or(() -> declaringClass.category));
+    }
+
+    static Optional<String> categoryOf(Class<?> testClass) {
+        return CLASSES.get(testClass).category;
+    }
+
+    static Optional<String> totalCategoryOf(Method testMethod) {
+        return CLASSES.get(testMethod.getDeclaringClass()).totals.computeIfAbsent(testMethod, method -> findAnnotation(
+                method, TotalTimeLimit.class).map(TotalTimeLimit::value));
+    }
+
+    static Optional<String> totalCategoryOf(Class<?> testClass) {
+        return findAnnotation(testClass, TotalTimeLimit.class).map(TotalTimeLimit::value);
+    }
+
+    private static Optional<String> resolveClass(Class<?> type) {
+        Optional<String> category = findCategory(type);
+        if (category.isPresent()) {
+            return category;
+        }
+        for (Class<?> implemented : type.getInterfaces()) {
+            category = CLASSES.get(implemented).category;
+            if (category.isPresent()) {
+                return category;
+            }
+        }
+        Class<?> superclass = type.getSuperclass();
+        if (superclass != null && superclass != Object.class) {
+            category = CLASSES.get(superclass).category;
+            if (category.isPresent()) {
+                return category;
+            }
+        }
+        // @Nested test classes are inner classes
+        if (type.isMemberClass() && !Modifier.isStatic(type.getModifiers())) {
+            return CLASSES.get(type.getEnclosingClass()).category;
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> findCategory(AnnotatedElement element) {
+        return findAnnotation(element, TimeLimit.class).map(TimeLimit::value);
+    }
+
+    private static final class ResolvedClass {
+        final Optional<String>                        category;
+        final ConcurrentMap<Method, Optional<String>> methods = new ConcurrentHashMap<>();
+        final ConcurrentMap<Method, Optional<String>> totals  = new ConcurrentHashMap<>();
+
+        ResolvedClass(Optional<String> category) {
+            this.category = category;
+        }
+    }
+}
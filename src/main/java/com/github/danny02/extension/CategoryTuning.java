@@ -0,0 +1,112 @@
+package com.github.danny02.extension;
+
+import java.util.Arrays;
+
+/**
+ * Proposes category boundaries which separate the runtimes of a suite best. The runtimes are clustered on a
+ * logarithmic scale, as a test of 10ms and one of 20ms differ as much as one of 1s and one of 2s.
+ * <p>
+ * The runtimes are bucketed in steps of 1% first, so the exact clustering by dynamic programming costs the
+ * square of the number of buckets, at most a few thousand, instead of the square of the number of tests.
+ */
+final class CategoryTuning {
+    private static final double STEP      = Math.log(1.01);
+    private static final long   MIN_NANOS = 1_000;
+
+    final int[]  assignments;
+    final long[] lowerNanos, upperNanos;
+    final int[]  tests;
+
+    private CategoryTuning(int[] assignments, long[] lowerNanos, long[] upperNanos, int[] tests) {
+        this.assignments = assignments;
+        this.lowerNanos = lowerNanos;
+        this.upperNanos = upperNanos;
+        this.tests = tests;
+    }
+
+    /**
+     * @param overlap the bounds of neighbouring categories overlap by this factor around their boundary, so a test
+     *                close to it doesn't change its category on every run
+     * @return the category of every runtime and the bounds of at most {@code categories} categories, ordered from
+     * the shortest to the longest, the last one is not bounded
+     */
+    static CategoryTuning propose(long[] runtimeNanos, int categories, double overlap) {
+        int[] buckets = new int[runtimeNanos.length];
+        for (int i = 0; i < runtimeNanos.length; i++) {
+            buckets[i] = bucket(runtimeNanos[i]);
+        }
+        int[] distinct = Arrays.stream(buckets).sorted().distinct().toArray();
+        int   m        = distinct.length;
+        int   k        = Math.max(1, Math.min(categories, m));
+
+        // prefix sums of the weights, the sums and the squares of the bucket values
+        long[]   weights = new long[m + 1];
+        double[] sums    = new double[m + 1];
+        double[] squares = new double[m + 1];
+        long[]   counts  = new long[m];
+        for (int bucket : buckets) {
+            counts[Arrays.binarySearch(distinct, bucket)]++;
+        }
+        for (int i = 0; i < m; i++) {
+            double value = distinct[i] * STEP;
+            weights[i + 1] = weights[i] + counts[i];
+            sums[i + 1] = sums[i] + counts[i] * value;
+            squares[i + 1] = squares[i] + counts[i] * value * value;
+        }
+
+        // cost[c][j] is the least squared error of the first j buckets in c + 1 clusters, start[c][j] where the last begins
+        double[][] cost  = new double[k][m + 1];
+        int[][]    start = new int[k][m + 1];
+        for (int j = 1; j <= m; j++) {
+            cost[0][j] = error(weights, sums, squares, 0, j);
+        }
+        for (int c = 1; c < k; c++) {
+            for (int j = c + 1; j <= m; j++) {
+                cost[c][j] = Double.POSITIVE_INFINITY;
+                for (int i = c; i < j; i++) {
+                    double candidate = cost[c - 1][i] + error(weights, sums, squares, i, j);
+                    if (candidate < cost[c][j]) {
+                        cost[c][j] = candidate;
+                        start[c][j] = i;
+                    }
+                }
+            }
+        }
+        int[] firsts = new int[k + 1];
+        firsts[k] = m;
+        for (int c = k - 1; c > 0; c--) {
+            firsts[c] = start[c][firsts[c + 1]];
+        }
+
+        long[] lowerNanos = new long[k];
+        long[] upperNanos = new long[k];
+        int[]  tests      = new int[k];
+        upperNanos[k - 1] = Long.MAX_VALUE;
+        for (int c = 0; c < k - 1; c++) {
+            double boundary = Math.exp((distinct[firsts[c + 1] - 1] + distinct[firsts[c + 1]]) * STEP / 2);
+            upperNanos[c] = Math.round(boundary * (1 + overlap));
+            lowerNanos[c + 1] = Math.round(boundary / (1 + overlap));
+        }
+        int[] assignments = new int[runtimeNanos.length];
+        for (int i = 0; i < runtimeNanos.length; i++) {
+            int index = Arrays.binarySearch(distinct, buckets[i]);
+            int c     = 0;
+            while (firsts[c + 1] <= index) {
+                c++;
+            }
+            assignments[i] = c;
+            tests[c]++;
+        }
+        return new CategoryTuning(assignments, lowerNanos, upperNanos, tests);
+    }
+
+    private static int bucket(long runtimeNanos) {
+        return (int) Math.round(Math.log(Math.max(MIN_NANOS, runtimeNanos)) / STEP);
+    }
+
+    private static double error(long[] weights, double[] sums, double[] squares, int from, int to) {
+        long   weight = weights[to] - weights[from];
+        double sum    = sums[to] - sums[from];
+        return squares[to] - squares[from] - sum * sum / weight;
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.danny02.extension;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sums up the time spent in each phase by the tests of a class. The class fixtures are bracketed by
+ * the start of the first and the end of the last test, as the tests of a class might run in parallel.
+ */
+final class ClassPhases {
+    private static final long NONE = Long.MIN_VALUE;
+
+    final String category;
+    final long   startNanos;
+
+    private final LongAdder[] phases           = new LongAdder[Phase.values().length];
+    private final AtomicLong  firstTestNanos   = new AtomicLong(NONE);
+    private final AtomicLong  lastTestEndNanos = new AtomicLong(NONE);
+
+    ClassPhases(String category, long startNanos) {
+        this.category = category;
+        this.startNanos = startNanos;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return whether it is the first test of the class
+     */
+    boolean testStarted(long nanos) {
+        return firstTestNanos.compareAndSet(NONE, nanos);
+    }
+
+    void testFinished(long nanos) {
+        lastTestEndNanos.accumulateAndGet(nanos, (a, b) -> a == NONE ? b : Math.max(a, b));
+    }
+
+    void add(Phase phase, long nanos) {
+        phases[phase.ordinal()].add(nanos);
+    }
+
+    /**
+     * Books the class fixtures, a class without any executed test has no fixture phases.
+     */
+    void finish(long endNanos) {
+        long first = firstTestNanos.get();
+        long last  = lastTestEndNanos.get();
+        if (first != NONE && last != NONE) {
+            add(Phase.BEFORE_ALL, first - startNanos);
+            add(Phase.AFTER_ALL, endNanos - last);
+        }
+    }
+
+    long nanos(Phase phase) {
+        return phases[phase.ordinal()].sum();
+    }
+}
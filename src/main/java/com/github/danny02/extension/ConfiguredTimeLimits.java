@@ -1,12 +1,19 @@
 package com.github.danny02.extension;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
 import static com.github.danny02.extension.TimeoutBound.fromMs;
-import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toMap;
 
 public class ConfiguredTimeLimits {
 
@@ -17,8 +24,25 @@ public class ConfiguredTimeLimits {
             "eternal", fromMs(1500, Long.MAX_VALUE)
                                                                     );
 
-    private final Map<String, TimeoutBound>            defaults;
+    static final int MIN_HISTORY_SAMPLES = 3;
+
+    private static final String TIMEOUT_PARAMETER_PREFIX = "com.github.danny02.timeout.";
+    private static final String TIMEOUT_LOWER            = ".lower";
+    private static final String TIMEOUT_UPPER            = ".upper";
+
+    private final Map<String, TimeoutBound>            defaults, scaledDefaults;
     private final Function<String, Optional<Duration>> lookupLower, lookupUpper;
+    private final double                               speedFactor;
+    private final RuntimeValidation                    validation;
+    private final ConcurrentMap<String, TimeoutBound>  resolved = new ConcurrentHashMap<>();
+    private final Function<String, TimeoutBound>       resolver = this::resolveBounds;
+
+    // the scaled defaults sorted by their lower bound, reach is the highest upper bound up to an index
+    private final String[] indexedCategories;
+    private final long[]   indexedLowers, indexedReach;
+
+    private final ConcurrentMap<String, Map<Phase, TimeoutBound>> resolvedPhases = new ConcurrentHashMap<>();
+    private final Function<String, Map<Phase, TimeoutBound>>      phaseResolver  = this::resolvePhaseBounds;
 
     public ConfiguredTimeLimits(Function<String, Optional<Duration>> lookupLower,
                                 Function<String, Optional<Duration>> lookupUpper) {
@@ -28,17 +52,122 @@ public class ConfiguredTimeLimits {
     public ConfiguredTimeLimits(Function<String, Optional<Duration>> lookupLower,
                                 Function<String, Optional<Duration>> lookupUpper,
                                 Map<String, TimeoutBound> defaults) {
+        this(lookupLower, lookupUpper, defaults, 1, RuntimeValidation.strict());
+    }
+
+    /**
+     * @param speedFactor all bounds get stretched by this factor, to adapt them to slower machines
+     */
+    public ConfiguredTimeLimits(Function<String, Optional<Duration>> lookupLower,
+                                Function<String, Optional<Duration>> lookupUpper,
+                                Map<String, TimeoutBound> defaults,
+                                double speedFactor,
+                                RuntimeValidation validation) {
         this.defaults = defaults;
         this.lookupLower = lookupLower;
         this.lookupUpper = lookupUpper;
+        this.speedFactor = speedFactor;
+        this.validation = validation;
+        this.scaledDefaults = speedFactor == 1 ? defaults : defaults.entrySet()
+                                                                    .stream()
+                                                                    .collect(toMap(e -> e.getKey(),
+                                                                                   e -> e.getValue().scale(speedFactor)));
+
+        List<Map.Entry<String, TimeoutBound>> sorted = new ArrayList<>(scaledDefaults.entrySet());
+        sorted.sort(Comparator.comparingLong((Map.Entry<String, TimeoutBound> e) -> e.getValue().lowerNanos)
+                              .thenComparing(Map.Entry::getKey));
+        this.indexedCategories = new String[sorted.size()];
+        this.indexedLowers = new long[sorted.size()];
+        this.indexedReach = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            TimeoutBound bounds = sorted.get(i).getValue();
+            indexedCategories[i] = sorted.get(i).getKey();
+            indexedLowers[i] = bounds.lowerNanos;
+            indexedReach[i] = Math.max(i == 0 ? Long.MIN_VALUE : indexedReach[i - 1], bounds.upperNanos);
+        }
+    }
+
+    public static ConfiguredTimeLimits fromParameters(Function<String, Optional<String>> parameters) {
+        return fromParameters(parameters, 1, RuntimeValidation.strict());
+    }
+
+    /**
+     * Reads overrides of the default categories and additional categories from configuration parameters like
+     * {@code com.github.danny02.timeout.<category>.lower} and {@code com.github.danny02.timeout.<category>.upper}.
+     */
+    public static ConfiguredTimeLimits fromParameters(Function<String, Optional<String>> parameters,
+                                                      double speedFactor, RuntimeValidation validation) {
+        Function<String, Function<String, Optional<Duration>>> lookup = bound -> category ->
+                parseMillis(parameters, TIMEOUT_PARAMETER_PREFIX + category + bound);
+
+        return new ConfiguredTimeLimits(lookup.apply(TIMEOUT_LOWER), lookup.apply(TIMEOUT_UPPER),
+                                        DEFAULTS, speedFactor, validation);
+    }
+
+    public static Optional<Duration> parseMillis(Function<String, Optional<String>> parameters, String key) {
+        return parameters.apply(key).map(value -> {
+            try {
+                return Duration.ofMillis(Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("malformed value '" + value + "' for configuration parameter '" + key + "', " +
+                                           "expected a duration in milliseconds", e);
+            }
+        });
     }
 
     public TimeoutBound lookUpBounds(String category) {
+        TimeoutBound bounds = resolved.get(category);
+        return bounds != null ? bounds : resolved.computeIfAbsent(category, resolver);
+    }
+
+    /**
+     * @return the bounds of the category, empty if neither a default nor a bound is configured for it
+     */
+    public Optional<TimeoutBound> findBounds(String category) {
+        boolean known = resolved.containsKey(category) || defaults.containsKey(category)
+                        || lookupLower.apply(category).isPresent() || lookupUpper.apply(category).isPresent();
+        return known ? Optional.of(lookUpBounds(category)) : Optional.empty();
+    }
+
+    /**
+     * @return the highest bound of the default categories short of an unbounded upper one, a pessimistic
+     * estimate for a test of unknown runtime
+     */
+    public long longestBoundedNanos() {
+        long longest = 0;
+        for (String category : indexedCategories) {
+            TimeoutBound bounds = lookUpBounds(category);
+            longest = Math.max(longest, bounds.isUpperBounded() ? bounds.upperNanos : bounds.lowerNanos);
+        }
+        return longest;
+    }
+
+    /**
+     * The body of a test is bounded by its category. The fixture phases are only bounded if configured with
+     * parameters like {@code com.github.danny02.timeout.<category>.before-each.upper}, a missing lower bound is 0
+     * and a missing upper bound is unbounded.
+     */
+    public Optional<TimeoutBound> lookUpBounds(String category, Phase phase) {
+        if (phase == Phase.BODY) {
+            return Optional.of(lookUpBounds(category));
+        }
+        Map<Phase, TimeoutBound> bounds = resolvedPhases.get(category);
+        if (bounds == null) {
+            bounds = resolvedPhases.computeIfAbsent(category, phaseResolver);
+        }
+        return Optional.ofNullable(bounds.get(phase));
+    }
+
+    public void resolveDefaultCategories() {
+        defaults.keySet().forEach(this::lookUpBounds);
+    }
+
+    private TimeoutBound resolveBounds(String category) {
         Optional<TimeoutBound> defaultBound = Optional.ofNullable(defaults.get(category));
 
         Optional<Duration>     lower      = lookupLower.apply(category).or(() -> defaultBound.map(db -> db.lower));
         Optional<Duration>     upper      = lookupUpper.apply(category).or(() -> defaultBound.map(db -> db.upper));
-        Optional<TimeoutBound> configured = lower.flatMap(l -> upper.map(u -> new TimeoutBound(l, u)));
+        Optional<TimeoutBound> configured = lower.flatMap(l -> upper.map(u -> new TimeoutBound(l, u).scale(speedFactor)));
 
         return configured.orElseThrow(() -> {
             if (!lower.isPresent()) {
@@ -51,28 +180,169 @@ public class ConfiguredTimeLimits {
         });
     }
 
+    private Map<Phase, TimeoutBound> resolvePhaseBounds(String category) {
+        Map<Phase, TimeoutBound> bounds = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            if (phase == Phase.BODY) {
+                continue;
+            }
+            Optional<Duration> lower = lookupLower.apply(category + "." + phase.key);
+            Optional<Duration> upper = lookupUpper.apply(category + "." + phase.key);
+            if (lower.isPresent() || upper.isPresent()) {
+                bounds.put(phase, new TimeoutBound(lower.orElse(Duration.ZERO), upper.orElse(TimeoutBound.UNBOUNDED))
+                        .scale(speedFactor));
+            }
+        }
+        return bounds;
+    }
+
     public Optional<String> smallestDefaultCategoryForDuration(Duration duration) {
-        return defaults.entrySet()
-                       .stream()
-                       .filter(e -> e.getValue().isInBound(duration))
-                       .sorted(comparingLong(a -> a.getValue().lower.toMillis()))
-                       .findFirst()
-                       .map(e -> e.getKey());
+        int index = smallestDefaultCategoryIndex(duration.toNanos());
+        return index < 0 ? Optional.empty() : Optional.of(indexedCategories[index]);
     }
 
-    public Optional<String> validateRuntime(Duration runtime, String expectedCategory) {
-        TimeoutBound expectedBounds = lookUpBounds(expectedCategory);
+    /**
+     * @return the names of the default categories, ordered by their lower bound
+     */
+    List<String> defaultCategories() {
+        return List.of(indexedCategories);
+    }
+
+    /**
+     * The first default category whose reach covers the runtime is the one with the smallest lower bound which
+     * contains it, as long as its lower bound is not above the runtime.
+     */
+    private int smallestDefaultCategoryIndex(long runtimeNanos) {
+        int reaching = Arrays.binarySearch(indexedReach, runtimeNanos);
+        if (reaching < 0) {
+            reaching = -reaching - 1;
+        } else {
+            // equal reaches are adjacent, the first one is where it got reached
+            while (reaching > 0 && indexedReach[reaching - 1] == runtimeNanos) {
+                reaching--;
+            }
+        }
+        return reaching < indexedLowers.length && indexedLowers[reaching] <= runtimeNanos ? reaching : -1;
+    }
+
+    /**
+     * Validates a batch of runs in one pass over primitive arrays, e.g. to re-validate recorded runtimes. The runs
+     * are validated strictly against the bounds of their category, without looking at a history.
+     * <p>
+     * The extension doesn't batch the tests of a class, it has to fail each test right after it ran and with the
+     * history of that test.
+     *
+     * @param categoryIds the index of the category of each run in {@code categories}
+     */
+    public BatchVerdicts validateAll(long[] runtimeNanos, int[] categoryIds, String... categories) {
+        if (runtimeNanos.length != categoryIds.length) {
+            throw new IllegalArgumentException("got " + runtimeNanos.length + " runtimes, but " + categoryIds.length +
+                                               " category ids");
+        }
+        long[] lowers = new long[categories.length];
+        long[] uppers = new long[categories.length];
+        for (int i = 0; i < categories.length; i++) {
+            TimeoutBound bounds = lookUpBounds(categories[i]);
+            lowers[i] = bounds.lowerNanos;
+            uppers[i] = bounds.upperNanos;
+        }
 
-        if (expectedBounds.isInBound(runtime)) {
+        boolean[] inBound    = new boolean[runtimeNanos.length];
+        int[]     suggested  = new int[runtimeNanos.length];
+        int       violations = 0;
+        for (int run = 0; run < runtimeNanos.length; run++) {
+            long runtime  = runtimeNanos[run];
+            int  category = categoryIds[run];
+            inBound[run] = runtime >= lowers[category] && runtime <= uppers[category];
+            if (!inBound[run]) {
+                violations++;
+            }
+            suggested[run] = smallestDefaultCategoryIndex(runtime);
+        }
+        return new BatchVerdicts(indexedCategories, inBound, suggested, violations);
+    }
+
+    /**
+     * Suggests a category based on the 95th percentile of the recorded runtimes, which is far less
+     * noisy than a single run.
+     */
+    public Optional<String> suggestCategory(RuntimeSamples history) {
+        return suggestCategory(history, 1);
+    }
+
+    /**
+     * @param scale of the scope of the test, the runtimes are scaled back as the default categories are not scaled
+     */
+    public Optional<String> suggestCategory(RuntimeSamples history, double scale) {
+        if (history.size() < MIN_HISTORY_SAMPLES) {
             return Optional.empty();
         }
+        return smallestDefaultCategoryForDuration(Duration.ofNanos(Math.round(history.percentile(0.95) / scale)));
+    }
+
+    public Optional<String> validateRuntime(long runtimeNanos, String expectedCategory) {
+        return validateRuntime(runtimeNanos, expectedCategory, Optional.empty());
+    }
+
+    public Optional<String> validateRuntime(long runtimeNanos, String expectedCategory,
+                                            Optional<RuntimeSamples> history) {
+        return validateRuntime(runtimeNanos, expectedCategory, 1, history);
+    }
+
+    /**
+     * @param scale the factor the bounds of the category are scaled with for the test, like the one of its scope
+     */
+    public Optional<String> validateRuntime(long runtimeNanos, String expectedCategory, double scale,
+                                            Optional<RuntimeSamples> history) {
+        TimeoutBound bounds = scale == 1 ? lookUpBounds(expectedCategory) : lookUpBounds(expectedCategory).scale(scale);
+        if (bounds.isInBound(runtimeNanos) || !validation.isViolation(bounds, runtimeNanos, history)) {
+            return Optional.empty();
+        }
+        return describeViolation(Duration.ofNanos(runtimeNanos), expectedCategory, bounds, scale, history);
+    }
+
+    /**
+     * @return an error if the phase has bounds configured and the runtime is out of them
+     */
+    public Optional<String> validatePhase(long runtimeNanos, String category, Phase phase) {
+        return validatePhase(runtimeNanos, category, phase, 1);
+    }
+
+    public Optional<String> validatePhase(long runtimeNanos, String category, Phase phase, double scale) {
+        return lookUpBounds(category, phase)
+                .map(bounds -> scale == 1 ? bounds : bounds.scale(scale))
+                .filter(bounds -> !bounds.isInBound(runtimeNanos))
+                .map(bounds -> String.format("The %s phase took %dms, but category '%s' bounds it to %s.",
+                                             phase, Duration.ofNanos(runtimeNanos).toMillis(), category, bounds));
+    }
+
+    public Optional<String> validateRuntime(Duration runtime, String expectedCategory) {
+        return validateRuntime(runtime, expectedCategory, Optional.empty());
+    }
+
+    public Optional<String> validateRuntime(Duration runtime, String expectedCategory,
+                                            Optional<RuntimeSamples> history) {
+        return validateRuntime(runtime.toNanos(), expectedCategory, history);
+    }
 
-        Optional<String> idealCategory = smallestDefaultCategoryForDuration(runtime);
+    private Optional<String> describeViolation(Duration runtime, String expectedCategory, TimeoutBound expectedBounds,
+                                               double scale, Optional<RuntimeSamples> history) {
+        // the default categories are not scaled for the test, so its runtime is scaled back instead
+        Optional<RuntimeSamples> usableHistory = history.filter(h -> h.size() >= MIN_HISTORY_SAMPLES);
+        Optional<String> idealCategory = usableHistory.isPresent()
+                                         ? suggestCategory(usableHistory.get(), scale)
+                                         : smallestDefaultCategoryForDuration(Duration.ofNanos(
+                                                 Math.round(runtime.toNanos() / scale)));
         String idealCategoryMessage = idealCategory.map(ic -> "You should probably categorize it as '" + ic + "'")
                                                     .orElse("No default category defined for this runtime.");
+        String historyMessage = usableHistory.map(h -> String.format(
+                "Over the last %d runs it took %dms (p50) and %dms (p95).\n",
+                h.size(), Duration.ofNanos(h.percentile(0.5)).toMillis(), Duration.ofNanos(h.percentile(0.95)).toMillis()))
+                                             .orElse("");
 
         return Optional.of(String.format("The test run for %dms and was categorized as '%s', " +
                                          "but it did not complete in between %s.\n" +
+                                         historyMessage +
                                          idealCategoryMessage,
                                          runtime.toMillis(), expectedCategory, expectedBounds));
 
@@ -0,0 +1,221 @@
+package com.github.danny02.extension;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Merges the timing reports of the forked JVMs of a build, e.g. of Surefire with {@code forkCount=8}.
+ * <p>
+ * Every fork writes its own report into a shared directory, so the tests of different forks never contend on
+ * anything. When a fork finishes, it merges the reports of all finished forks of its build into one report and a
+ * summary, the last fork to finish leaves the complete result behind. The build is part of the name of a report,
+ * the finished reports of other builds are deleted, so tests which got removed or renamed don't linger.
+ */
+final class ForkAggregation {
+    static final String FORK_PREFIX  = "fork-";
+    static final String FORK_SUFFIX  = ".jsonl";
+    static final String REPORT_FILE  = "timing-report.jsonl";
+    static final String SUMMARY_FILE = "summary.txt";
+
+    private static final String        LOCK_FILE = "forks.lock";
+    private static final AtomicInteger SEQUENCE  = new AtomicInteger();
+
+    private ForkAggregation() {
+    }
+
+    /**
+     * @param configured the build the forks belong to, e.g. the number of a CI build
+     * @return the build as part of a file name, by default the process which started the forks, like the Maven
+     * JVM of a Surefire run
+     */
+    static String build(Optional<String> configured) {
+        if (configured.isPresent()) {
+            // the dash separates the build from the rest of the name
+            return configured.get().trim().replaceAll("[^A-Za-z0-9_.]", "_");
+        }
+        ProcessHandle starter = ProcessHandle.current().parent().orElse(ProcessHandle.current());
+        long          started = starter.info().startInstant().map(Instant::toEpochMilli).orElse(0L);
+        return String.format("%x_%x", starter.pid(), started);
+    }
+
+    /**
+     * Fork reports are named after their build and the time they were created at, so the reports of a build are
+     * merged in the order they were created.
+     */
+    static String forkPrefix(String build) {
+        return String.format("%s%s-%016x-%08x-", FORK_PREFIX, build, System.currentTimeMillis(),
+                             SEQUENCE.getAndIncrement());
+    }
+
+    /**
+     * @return the number of violations in the merged report of the build
+     */
+    static int merge(Path directory, String build) throws IOException {
+        // the forks finishing at the same time merge one after the other
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, WRITE)) {
+            lockChannel.lock();
+            List<Path> finished = new ArrayList<>();
+            int        running  = 0;
+            String     ownBuild = FORK_PREFIX + build + "-";
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FORK_PREFIX + "*" + FORK_SUFFIX)) {
+                for (Path file : files) {
+                    // an empty report might not be locked by its fork yet
+                    if (Files.size(file) == 0) {
+                        continue;
+                    }
+                    boolean sameBuild = file.getFileName().toString().startsWith(ownBuild);
+                    if (isFinished(file)) {
+                        if (sameBuild) {
+                            finished.add(file);
+                        } else {
+                            Files.delete(file);
+                        }
+                    } else if (sameBuild) {
+                        running++;
+                    }
+                }
+            }
+            finished.sort(Comparator.comparing(file -> file.getFileName().toString()));
+
+            // a test run again within the build, e.g. by Surefire's rerunFailingTestsCount, replaces its earlier result
+            Map<String, String> results = new LinkedHashMap<>();
+            Map<String, Path>   origins = new HashMap<>();
+            for (Path file : finished) {
+                try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    for (String line = in.readLine(); line != null; line = in.readLine()) {
+                        if (!line.endsWith("}")) {
+                            // a truncated trailing line of a crashed fork is dropped
+                            continue;
+                        }
+                        String id = TimingReport.stringField(line, "id");
+                        if (id == null || TimingReport.stringField(line, "category") == null
+                            || TimingReport.stringField(line, "verdict") == null
+                            || TimingReport.longField(line, "runtimeNanos") < 0) {
+                            continue;
+                        }
+                        results.put(id, line);
+                        origins.put(id, file);
+                    }
+                }
+            }
+            Set<Path> merged = new HashSet<>(origins.values());
+            for (Path file : finished) {
+                if (!merged.contains(file)) {
+                    Files.delete(file);
+                }
+            }
+
+            Map<String, Category> categories = new TreeMap<>();
+            Map<String, Integer>  verdicts   = new TreeMap<>();
+            List<String>          violations = new ArrayList<>();
+            Path                  report     = Files.createTempFile(directory, "merging-", ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> result : results.entrySet()) {
+                    String line     = result.getValue();
+                    String category = TimingReport.stringField(line, "category");
+                    String verdict  = TimingReport.stringField(line, "verdict");
+                    long   runtime  = TimingReport.longField(line, "runtimeNanos");
+                    out.write(line);
+                    out.newLine();
+                    categories.computeIfAbsent(category, c -> new Category()).add(runtime, verdict);
+                    verdicts.merge(verdict, 1, Integer::sum);
+                    if (verdict.equals("violation")) {
+                        violations.add(String.format("  %s: took %dms, categorized as '%s'", result.getKey(),
+                                                     toMillis(runtime), category));
+                    }
+                }
+            }
+            Files.move(report, directory.resolve(REPORT_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format("Merged the timing reports of %d forks, %d still running.", merged.size(),
+                                    running));
+            lines.add(String.format("%d tests, verdicts: %s", results.size(), verdicts));
+            lines.add("Per category:");
+            categories.forEach((name, category) -> lines.add(category.describe(name)));
+            if (!violations.isEmpty()) {
+                lines.add("Violations:");
+                violations.sort(null);
+                lines.addAll(violations);
+            }
+            Path summary = Files.createTempFile(directory, "merging-", ".tmp");
+            Files.write(summary, lines);
+            Files.move(summary, directory.resolve(SUMMARY_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+            return violations.size();
+        }
+    }
+
+    /**
+     * A report is still being written to as long as its fork holds the lock on it.
+     */
+    private static boolean isFinished(Path report) throws IOException {
+        try (FileChannel channel = FileChannel.open(report, WRITE);
+             FileLock lock = channel.tryLock()) {
+            return lock != null;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final class Category {
+        long[] runtimes = new long[16];
+        int    tests;
+        int    violations;
+        long   totalNanos;
+
+        void add(long runtimeNanos, String verdict) {
+            if (tests == runtimes.length) {
+                runtimes = Arrays.copyOf(runtimes, tests * 2);
+            }
+            runtimes[tests++] = runtimeNanos;
+            totalNanos += runtimeNanos;
+            if (verdict.equals("violation")) {
+                violations++;
+            }
+        }
+
+        String describe(String name) {
+            long[] sorted = Arrays.copyOf(runtimes, tests);
+            Arrays.sort(sorted);
+            return String.format("  %s: %d tests, %d violations, p50 %dms, p95 %dms, max %dms, total %dms", name,
+                                 tests, violations, toMillis(percentile(sorted, 0.5)),
+                                 toMillis(percentile(sorted, 0.95)), toMillis(sorted[tests - 1]),
+                                 toMillis(totalNanos));
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            return sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.danny02.extension;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Counters of the work the JVM does besides running the tests. They are JVM wide, so tests running in
+ * parallel see the activity of each other.
+ */
+final class JvmActivity {
+    private static final ClassLoadingMXBean CLASS_LOADING = ManagementFactory.getClassLoadingMXBean();
+    private static final CompilationMXBean  COMPILATION   = ManagementFactory.getCompilationMXBean();
+    private static final boolean            JIT_TIMED     = COMPILATION != null
+                                                            && COMPILATION.isCompilationTimeMonitoringSupported();
+
+    /**
+     * Concurrent collectors also report their cycles, which run besides the application and don't pause it.
+     */
+    private static final List<GarbageCollectorMXBean> PAUSING_COLLECTORS = ManagementFactory
+            .getGarbageCollectorMXBeans()
+            .stream()
+            .filter(gc -> !gc.getName().contains("Cycles") && !gc.getName().contains("Concurrent"))
+            .collect(Collectors.toList());
+
+    private JvmActivity() {
+    }
+
+    static long loadedClasses() {
+        return CLASS_LOADING.getTotalLoadedClassCount();
+    }
+
+    /**
+     * @return the accumulated time of the JIT compiler or 0, if the JVM doesn't track it
+     */
+    static long compilationMillis() {
+        return JIT_TIMED ? COMPILATION.getTotalCompilationTime() : 0;
+    }
+
+    /**
+     * @return the accumulated time the collectors paused the application
+     */
+    static long gcPauseMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : PAUSING_COLLECTORS) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.danny02.extension;
+
+import java.util.Locale;
+
+/**
+ * Which time of a test gets validated against the bounds of its category.
+ */
+enum MeasuredTime {
+    /**
+     * Elapsed time, includes time the test thread waited for a CPU when running tests in parallel.
+     */
+    WALL,
+    /**
+     * CPU time of the test thread, unaffected by a saturated machine, but blind to sleeping and waiting.
+     */
+    CPU;
+
+    static MeasuredTime parse(String value, String key) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("unknown value '" + value + "' for configuration parameter '" + key + "', " +
+                                       "expected wall or cpu", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.danny02.extension;
+
+import com.github.danny02.extension.Watchdog.Deadline;
+
+import java.util.Collections;
+import java.util.List;
+
+final class Measurement {
+    final String       category;
+    final TimeoutBound bounds;
+    final MeasuredTime measuredTime;
+    Deadline               deadline;
+    Budget                 budget;
+    TimingEvents.TestTimed event;
+    StackProfile           profile;
+    ThreadSnapshot         threads;
+    List<String>           stacks = Collections.emptyList();
+    long                   beforeEachNanos, startNanos, startCpuNanos, endNanos, cpuNanos;
+    long                   loadedClasses, compilationMillis, gcPauseMillis, asyncCpuNanos;
+    // -1 while the test is not limited or measured
+    long                   allocationLimit = -1, allocatedBytes = -1;
+    // of the scope of the test class, already applied to the bounds
+    double                 scale = 1;
+    boolean                executed, firstOfClass;
+
+    Measurement(String category, TimeoutBound bounds, MeasuredTime measuredTime) {
+        this.category = category;
+        this.bounds = bounds;
+        this.measuredTime = measuredTime;
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.danny02.extension;
+
+/**
+ * The phases of the lifecycle of a test class, which can be bounded separately.
+ */
+public enum Phase {
+    BEFORE_ALL("before-all"),
+    BEFORE_EACH("before-each"),
+    BODY("body"),
+    AFTER_EACH("after-each"),
+    AFTER_ALL("after-all");
+
+    final String key;
+
+    Phase(String key) {
+        this.key = key;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,314 @@
+package com.github.danny02.extension;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of measured test runtimes, keyed by the unique id of a test.
+ * <p>
+ * Every JVM appends to its own segment file inside the history directory and holds a lock on
+ * that segment while it is open, so parallel forks never contend on a shared file. Segments of
+ * finished runs are merged into a single compacted segment once too many of them pile up. Segments
+ * are read under a shared lock of the directory and compacted under the exclusive one.
+ */
+public class RuntimeHistory implements Closeable {
+    static final int SAMPLES_PER_TEST = 50;
+
+    private static final String SEGMENT_SUFFIX = ".history";
+    private static final String COMPACTED      = "-compacted";
+    private static final String LOCK_FILE      = "history.lock";
+    private static final String REPORT_FILE    = "recategorization-report.txt";
+    private static final int    MAX_SEGMENTS   = 16;
+    private static final int    BUFFER_SIZE    = 64 * 1024;
+
+    private static final AtomicInteger SEGMENT_SEQUENCE = new AtomicInteger();
+
+    private final Path                                  directory;
+    private final ConcurrentMap<String, RuntimeSamples> samples;
+    private final ConcurrentMap<String, String>         categories = new ConcurrentHashMap<>();
+
+    private DataOutputStream out;
+
+    private RuntimeHistory(Path directory, ConcurrentMap<String, RuntimeSamples> samples) {
+        this.directory = directory;
+        this.samples = samples;
+    }
+
+    public static RuntimeHistory open(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            ConcurrentMap<String, RuntimeSamples> samples = new ConcurrentHashMap<>();
+            int                                   segments;
+            // a compaction replaces segments under the exclusive lock, so readers see either all of them or its result
+            synchronized (RuntimeHistory.class) {
+                try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, READ, WRITE)) {
+                    lockChannel.lock(0, Long.MAX_VALUE, true);
+                    List<Path> files = listSegments(directory);
+                    for (Path segment : files) {
+                        read(segment, samples);
+                    }
+                    segments = files.size();
+                }
+            }
+            if (segments > MAX_SEGMENTS) {
+                compact(directory);
+            }
+            return new RuntimeHistory(directory, samples);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read runtime history from " + directory, e);
+        }
+    }
+
+    public Optional<RuntimeSamples> samples(String testId) {
+        return Optional.ofNullable(samples.get(testId));
+    }
+
+    public Map<String, RuntimeSamples> allSamples() {
+        return samples;
+    }
+
+    public RuntimeSamples record(String testId, String category, long runtimeNanos) {
+        RuntimeSamples testSamples = samples.computeIfAbsent(testId, id -> new RuntimeSamples(SAMPLES_PER_TEST));
+        testSamples.add(runtimeNanos);
+        categories.put(testId, category);
+        append(testId, runtimeNanos);
+        return testSamples;
+    }
+
+    /**
+     * @return the categories of the tests recorded during this run
+     */
+    public Map<String, String> recordedCategories() {
+        return categories;
+    }
+
+    private synchronized void append(String testId, long runtimeNanos) {
+        try {
+            if (out == null) {
+                Path file = Files.createTempFile(directory, segmentPrefix(), SEGMENT_SUFFIX);
+                FileChannel segment = FileChannel.open(file, WRITE);
+                segment.lock();
+                out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(segment), BUFFER_SIZE));
+            }
+            out.writeUTF(testId);
+            out.writeLong(runtimeNanos);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not append to runtime history in " + directory, e);
+        }
+    }
+
+    public void writeRecategorizationReport(ConfiguredTimeLimits timeLimits) throws IOException {
+        Map<String, String>  categorized = new HashMap<>(categories);
+        Map<String, Integer> categoryIds = new HashMap<>();
+        List<String>         testIds     = new ArrayList<>(categorized.size());
+        long[]               p95         = new long[categorized.size()];
+        int[]                ids         = new int[categorized.size()];
+        categorized.forEach((testId, category) -> {
+            RuntimeSamples recorded = samples.get(testId);
+            if (recorded.size() >= ConfiguredTimeLimits.MIN_HISTORY_SAMPLES) {
+                p95[testIds.size()] = recorded.percentile(0.95);
+                ids[testIds.size()] = categoryIds.computeIfAbsent(category, c -> categoryIds.size());
+                testIds.add(testId);
+            }
+        });
+        String[] categoryNames = new String[categoryIds.size()];
+        categoryIds.forEach((category, id) -> categoryNames[id] = category);
+
+        BatchVerdicts verdicts = timeLimits.validateAll(Arrays.copyOf(p95, testIds.size()),
+                                                        Arrays.copyOf(ids, testIds.size()), categoryNames);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < testIds.size(); i++) {
+            String         testId   = testIds.get(i);
+            String         category = categoryNames[ids[i]];
+            RuntimeSamples recorded = samples.get(testId);
+            long           testP95  = p95[i];
+            verdicts.suggestedCategory(i)
+                    .filter(suggested -> !suggested.equals(category))
+                    .ifPresent(suggested -> lines.add(String.format(
+                            "%s: categorized as '%s', took %dms (p50) and %dms (p95) over the last %d runs, " +
+                            "suggested category '%s'",
+                            testId, category, toMillis(recorded.percentile(0.5)), toMillis(testP95),
+                            recorded.size(), suggested)));
+        }
+        Collections.sort(lines);
+
+        Path report = Files.createTempFile(directory, "report-", ".tmp");
+        Files.write(report, lines);
+        Files.move(report, directory.resolve(REPORT_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    /**
+     * Clusters the p95 runtimes of all recorded tests into as many categories as there are default ones and writes
+     * their bounds as configuration parameters, followed by the tests which would change their category.
+     */
+    public void writeCategoryProposal(Path file, ConfiguredTimeLimits timeLimits) throws IOException {
+        Map<String, String> categorized = new TreeMap<>(categories);
+        List<String>        testIds     = new ArrayList<>(categorized.keySet());
+        long[]              p95         = new long[testIds.size()];
+        for (int i = 0; i < p95.length; i++) {
+            p95[i] = samples.get(testIds.get(i)).percentile(0.95);
+        }
+        if (p95.length == 0) {
+            return;
+        }
+        List<String>   names    = timeLimits.defaultCategories();
+        CategoryTuning proposal = CategoryTuning.propose(p95, names.size(), 0.25);
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("# proposed from the p95 runtimes of %d tests", p95.length));
+        for (int c = 0; c < proposal.tests.length; c++) {
+            String prefix = "com.github.danny02.timeout." + names.get(c);
+            lines.add(String.format("# %d tests", proposal.tests[c]));
+            lines.add(prefix + ".lower=" + toMillis(proposal.lowerNanos[c]));
+            if (proposal.upperNanos[c] != Long.MAX_VALUE) {
+                lines.add(prefix + ".upper=" + toMillis(proposal.upperNanos[c] + TimeUnit.MILLISECONDS.toNanos(1) - 1));
+            }
+        }
+        lines.add("");
+        lines.add("# tests in a different category than annotated");
+        for (int i = 0; i < p95.length; i++) {
+            String annotated = categorized.get(testIds.get(i));
+            String proposed  = names.get(proposal.assignments[i]);
+            if (!proposed.equals(annotated)) {
+                lines.add(String.format("# %s: %s -> %s (p95 %dms)", testIds.get(i), annotated, proposed,
+                                        toMillis(p95[i])));
+            }
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Files.write(file, lines);
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    /**
+     * Segments are named after the time they were created at, so sorting them by name reads the runtimes in the
+     * order they were recorded and every test keeps its latest samples.
+     */
+    private static String segmentPrefix() {
+        return String.format("runtimes-%016x-%08x-", System.currentTimeMillis(), SEGMENT_SEQUENCE.getAndIncrement());
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            files.forEach(segments::add);
+        }
+        segments.sort(Comparator.comparing(segment -> segment.getFileName().toString()));
+        return segments;
+    }
+
+    private static void read(Path segment, Map<String, RuntimeSamples> samples) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), BUFFER_SIZE))) {
+            while (true) {
+                String testId  = in.readUTF();
+                long   runtime = in.readLong();
+                samples.computeIfAbsent(testId, id -> new RuntimeSamples(SAMPLES_PER_TEST)).add(runtime);
+            }
+        } catch (EOFException e) {
+            // end of segment, a truncated trailing record of a crashed run is dropped
+        } catch (NoSuchFileException e) {
+            // the segment was removed since the directory was listed, e.g. by hand
+        }
+    }
+
+    private static synchronized void compact(Path directory) throws IOException {
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, WRITE)) {
+            if (lockChannel.tryLock() == null) {
+                return;
+            }
+
+            List<Path>                  finished = new ArrayList<>();
+            Map<String, RuntimeSamples> merged   = new HashMap<>();
+            for (Path segment : listSegments(directory)) {
+                if (isFinished(segment)) {
+                    finished.add(segment);
+                    read(segment, merged);
+                }
+            }
+            if (finished.isEmpty()) {
+                return;
+            }
+
+            Path compacted = Files.createTempFile(directory, "compacting-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(compacted), BUFFER_SIZE))) {
+                for (Map.Entry<String, RuntimeSamples> entry : merged.entrySet()) {
+                    for (long runtime : entry.getValue().toArray()) {
+                        out.writeUTF(entry.getKey());
+                        out.writeLong(runtime);
+                    }
+                }
+            }
+            for (Path segment : finished) {
+                Files.delete(segment);
+            }
+            // takes the place of the newest merged segment in the order of the segments
+            String newest = finished.get(finished.size() - 1).getFileName().toString().replace(SEGMENT_SUFFIX, "");
+            Files.move(compacted, directory.resolve(newest.replace(COMPACTED, "") + COMPACTED + SEGMENT_SUFFIX),
+                       ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * A segment is still being written to as long as its JVM holds the lock on it. Empty segments
+     * are left alone, as their writer might not have acquired the lock yet.
+     */
+    private static boolean isFinished(Path segment) throws IOException {
+        if (Files.size(segment) == 0) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(segment, WRITE);
+             FileLock lock = channel.tryLock()) {
+            return lock != null;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+}
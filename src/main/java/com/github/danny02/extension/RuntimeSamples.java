@@ -0,0 +1,52 @@
+package com.github.danny02.extension;
+
+import java.util.Arrays;
+
+public class RuntimeSamples {
+    private final long[] ring;
+    private       int    size, next;
+
+    public RuntimeSamples(int capacity) {
+        this.ring = new long[capacity];
+    }
+
+    public synchronized void add(long runtimeNanos) {
+        ring[next] = runtimeNanos;
+        next = (next + 1) % ring.length;
+        size = Math.min(size + 1, ring.length);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return the nearest-rank percentile of the recorded runtimes in nanoseconds
+     */
+    public synchronized long percentile(double quantile) {
+        if (size == 0) {
+            throw new IllegalStateException("no samples recorded");
+        }
+        long[] sorted = Arrays.copyOf(ring, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(quantile * size);
+        return sorted[Math.max(0, Math.min(size - 1, rank - 1))];
+    }
+
+    /**
+     * @return the most recent runtimes, oldest first
+     */
+    public synchronized long[] latest(int count) {
+        int    n       = Math.min(count, size);
+        long[] samples = new long[n];
+        for (int i = 0; i < n; i++) {
+            samples[i] = ring[(next - n + i + ring.length) % ring.length];
+        }
+        return samples;
+    }
+
+    synchronized long[] toArray() {
+        return latest(size);
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.danny02.extension;
+
+import java.util.Optional;
+
+/**
+ * Decides whether a runtime outside of the bounds of its category should be reported.
+ */
+@FunctionalInterface
+public interface RuntimeValidation {
+
+    /**
+     * @param history the recorded runtimes of the test, already including the current run
+     */
+    boolean isViolation(TimeoutBound bounds, long runtimeNanos, Optional<RuntimeSamples> history);
+
+    static RuntimeValidation strict() {
+        return (bounds, runtimeNanos, history) -> !bounds.isInBound(runtimeNanos);
+    }
+
+    /**
+     * Only reports a violation if the given quantile of the recorded runtimes is outside of the bounds.
+     * Falls back to strict validation as long as too few runtimes are recorded.
+     */
+    static RuntimeValidation quantile(double quantile) {
+        return (bounds, runtimeNanos, history) -> history.filter(h -> h.size() >= ConfiguredTimeLimits.MIN_HISTORY_SAMPLES)
+                                                         .map(h -> !bounds.isInBound(h.percentile(quantile)))
+                                                         .orElseGet(() -> !bounds.isInBound(runtimeNanos));
+    }
+
+    /**
+     * Only reports a violation if the last runs were all outside of the bounds.
+     * Falls back to strict validation as long as too few runtimes are recorded.
+     */
+    static RuntimeValidation consecutive(int runs) {
+        return (bounds, runtimeNanos, history) -> {
+            if (!history.isPresent() || history.get().size() < runs) {
+                return !bounds.isInBound(runtimeNanos);
+            }
+            for (long runtime : history.get().latest(runs)) {
+                if (bounds.isInBound(runtime)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+}
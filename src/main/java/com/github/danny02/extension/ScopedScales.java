@@ -0,0 +1,92 @@
+package com.github.danny02.extension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Scale factors for the bounds of the tests in a package or class, configured like
+ * {@code com.example.db=2, com.example.it.SlowIT=4}. The most specific pattern wins.
+ * <p>
+ * The patterns are compiled once into a trie of name segments, so looking up the scale of a test class costs
+ * the depth of its name, no matter how many patterns are configured.
+ */
+final class ScopedScales {
+    static final ScopedScales NONE = new ScopedScales(new Node());
+
+    private final Node root;
+
+    private ScopedScales(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @param value comma separated {@code pattern=factor} entries, a pattern is a package or class name optionally
+     *              followed by {@code .*}, later entries override earlier ones with the same pattern
+     */
+    static ScopedScales parse(String value, String key) {
+        Node root = new Node();
+        for (String entry : value.split(",")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            int    separator = entry.lastIndexOf('=');
+            String pattern   = separator < 0 ? "" : entry.substring(0, separator).trim();
+            if (pattern.endsWith(".*")) {
+                pattern = pattern.substring(0, pattern.length() - 2);
+            }
+            if (pattern.isEmpty()) {
+                throw new RuntimeException("malformed entry '" + entry.trim() + "' for configuration parameter '" +
+                                           key + "', expected pattern=factor");
+            }
+            Node node = root;
+            for (String segment : pattern.split("[.$]")) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+            node.scale = parseFactor(entry.substring(separator + 1), key);
+        }
+        return new ScopedScales(root);
+    }
+
+    static double parseFactor(String value, String key) {
+        try {
+            double factor = Double.parseDouble(value.trim());
+            if (factor > 0 && !Double.isInfinite(factor)) {
+                return factor;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new RuntimeException("malformed value '" + value.trim() + "' for configuration parameter '" + key + "', " +
+                                   "expected a positive factor");
+    }
+
+    /**
+     * @param className a binary class name, nested classes inherit the scale of their enclosing class
+     */
+    double scaleOf(String className) {
+        double scale = 1;
+        Node   node  = root;
+        int    start = 0;
+        while (start <= className.length()) {
+            int end = start;
+            while (end < className.length() && className.charAt(end) != '.' && className.charAt(end) != '$') {
+                end++;
+            }
+            node = node.children.get(className.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            if (node.scale > 0) {
+                scale = node.scale;
+            }
+            start = end + 1;
+        }
+        return scale;
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        // 0 as long as no pattern ends at this node
+        double scale;
+    }
+}
@@ -0,0 +1,308 @@
+package com.github.danny02.extension;
+
+import com.github.danny02.metrics.MetricsSink;
+import com.github.danny02.metrics.RuntimeHistogram;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+class Settings implements CloseableResource {
+    private static final String ENFORCE_PARAMETER     = "com.github.danny02.timelimit.enforce";
+    private static final String HISTORY_PARAMETER     = "com.github.danny02.timelimit.history.dir";
+    private static final String VALIDATION_PARAMETER  = "com.github.danny02.timelimit.validation";
+    private static final String QUANTILE_PARAMETER    = "com.github.danny02.timelimit.validation.quantile";
+    private static final String CONSECUTIVE_PARAMETER = "com.github.danny02.timelimit.validation.consecutive";
+    private static final String CALIBRATE_PARAMETER   = "com.github.danny02.timelimit.calibrate";
+    private static final String REFERENCE_PARAMETER   = "com.github.danny02.timelimit.calibration.reference";
+    private static final String SCALE_PARAMETER       = "com.github.danny02.timelimit.scale";
+    private static final String PROFILE_PARAMETER     = "com.github.danny02.timelimit.profile";
+    private static final String PROFILE_SCALE         = "com.github.danny02.timelimit.profile.%s.scale";
+    private static final String SCOPES_PARAMETER      = "com.github.danny02.timelimit.scopes";
+    private static final String PROFILE_SCOPES        = "com.github.danny02.timelimit.profile.%s.scopes";
+    private static final String MEASURE_PARAMETER     = "com.github.danny02.timelimit.measure";
+    private static final String SAMPLING_THRESHOLD    = "com.github.danny02.timelimit.sampling.threshold";
+    private static final String SAMPLING_INTERVAL     = "com.github.danny02.timelimit.sampling.interval";
+    private static final String GC_PARAMETER          = "com.github.danny02.timelimit.gc.compensate";
+    private static final String WARMUP_PARAMETER      = "com.github.danny02.timelimit.warmup";
+    private static final String ASYNC_PARAMETER       = "com.github.danny02.timelimit.async";
+    private static final String TUNE_PARAMETER        = "com.github.danny02.timelimit.tune.file";
+    private static final String VIOLATIONS_PARAMETER  = "com.github.danny02.timelimit.violations";
+    private static final String VIOLATIONS_BUDGET     = "com.github.danny02.timelimit.violations.budget";
+    private static final String VIOLATIONS_FILE       = "com.github.danny02.timelimit.violations.file";
+    private static final String REPORT_PARAMETER      = "com.github.danny02.timelimit.report.file";
+    private static final String REPORT_PHASES         = "com.github.danny02.timelimit.report.phases";
+    private static final String FORKS_PARAMETER       = "com.github.danny02.timelimit.forks.dir";
+    private static final String FORKS_BUILD           = "com.github.danny02.timelimit.forks.build";
+    private static final String BASELINE_PARAMETER    = "com.github.danny02.timelimit.baseline.file";
+    private static final String BASELINE_TOLERANCE    = "com.github.danny02.timelimit.baseline.tolerance";
+    private static final String BASELINE_SLACK        = "com.github.danny02.timelimit.baseline.slack";
+    private static final String BASELINE_FAIL         = "com.github.danny02.timelimit.baseline.fail";
+    private static final String CATEGORY_MEASURE      = "com.github.danny02.timeout.%s.measure";
+    private static final String CATEGORY_ALLOCATION   = "com.github.danny02.timeout.%s.allocation";
+
+    final ConfiguredTimeLimits timeLimits;
+    final ScopedScales         scopes;
+    final boolean              enforce;
+    final RuntimeHistory       history;
+    final TimingReport         report;
+    final Path                 forksDirectory;
+    final String               forksBuild;
+    final boolean              reportPhases;
+    final Baseline             baseline;
+    final boolean              failOnRegression;
+    final WarmUp               warmUp;
+    final AsyncAccounting      async;
+    final ViolationCollector   violations;
+    final int                  violationBudget;
+    final boolean              compensateGc;
+    final double               samplingThreshold;
+    final Duration             samplingInterval;
+
+    private final Function<String, Optional<String>>  parameters;
+    private final MeasuredTime                        defaultMeasuredTime;
+    private final ConcurrentMap<String, MeasuredTime> measuredTimes = new ConcurrentHashMap<>();
+    private final Function<String, MeasuredTime>      measuredTimeResolver = this::resolveMeasuredTime;
+
+    private final ConcurrentMap<String, Optional<Long>> allocationLimits        = new ConcurrentHashMap<>();
+    private final Function<String, Optional<Long>>      allocationLimitResolver = this::resolveAllocationLimit;
+
+    private final List<MetricsSink>                       metricsSinks = new ArrayList<>();
+    private final ConcurrentMap<String, RuntimeHistogram> histograms   = new ConcurrentHashMap<>();
+
+    private Settings(ConfiguredTimeLimits timeLimits, ScopedScales scopes, boolean enforce, RuntimeHistory history,
+                     TimingReport report, Baseline baseline, Function<String, Optional<String>> parameters) {
+        this.timeLimits = timeLimits;
+        this.scopes = scopes;
+        this.enforce = enforce;
+        this.history = history;
+        this.report = report;
+        this.baseline = baseline;
+        this.failOnRegression = parameters.apply(BASELINE_FAIL).map(Boolean::parseBoolean).orElse(true);
+        this.parameters = parameters;
+        this.forksDirectory = parameters.apply(FORKS_PARAMETER).map(Paths::get).orElse(null);
+        this.forksBuild = ForkAggregation.build(parameters.apply(FORKS_BUILD));
+        this.reportPhases = parameters.apply(REPORT_PHASES).map(Boolean::parseBoolean).orElse(false);
+        this.compensateGc = parameters.apply(GC_PARAMETER).map(Boolean::parseBoolean).orElse(false);
+        this.warmUp = parameters.apply(WARMUP_PARAMETER)
+                                .map(value -> WarmUp.parse(value, WARMUP_PARAMETER))
+                                .orElse(WarmUp.IGNORE);
+        this.async = parameters.apply(ASYNC_PARAMETER)
+                               .map(value -> AsyncAccounting.parse(value, ASYNC_PARAMETER))
+                               .orElse(AsyncAccounting.OFF);
+        this.violations = parseViolations(parameters);
+        this.violationBudget = parameters.apply(VIOLATIONS_BUDGET).map(Integer::parseInt).orElse(Integer.MAX_VALUE);
+        this.samplingThreshold = parameters.apply(SAMPLING_THRESHOLD).map(Double::parseDouble).orElse(0d);
+        this.samplingInterval = ConfiguredTimeLimits.parseMillis(parameters, SAMPLING_INTERVAL).orElse(Duration.ofMillis(10));
+        this.defaultMeasuredTime = parameters.apply(MEASURE_PARAMETER)
+                                             .map(value -> checkSupported(MeasuredTime.parse(value, MEASURE_PARAMETER)))
+                                             .orElse(MeasuredTime.WALL);
+        ServiceLoader.load(MetricsSink.class).forEach(metricsSinks::add);
+    }
+
+    static Settings fromContext(ExtensionContext context) {
+        double speedFactor = 1;
+        if (context.getConfigurationParameter(CALIBRATE_PARAMETER).map(Boolean::parseBoolean).orElse(false)) {
+            Duration reference = ConfiguredTimeLimits.parseMillis(context::getConfigurationParameter, REFERENCE_PARAMETER)
+                                                     .orElse(Calibration.DEFAULT_REFERENCE);
+            speedFactor = new Calibration(Ticker.system()).measureSpeedFactor(reference);
+        }
+        speedFactor *= context.getConfigurationParameter(SCALE_PARAMETER)
+                              .map(value -> ScopedScales.parseFactor(value, SCALE_PARAMETER))
+                              .orElse(1d);
+
+        // a profile like ci or local adds its own scale and scopes to the global ones
+        Optional<String> profile = context.getConfigurationParameter(PROFILE_PARAMETER).map(String::trim);
+        String           scopes  = context.getConfigurationParameter(SCOPES_PARAMETER).orElse("");
+        if (profile.isPresent()) {
+            String profileScale = String.format(PROFILE_SCALE, profile.get());
+            speedFactor *= context.getConfigurationParameter(profileScale)
+                                  .map(value -> ScopedScales.parseFactor(value, profileScale))
+                                  .orElse(1d);
+            scopes += "," + context.getConfigurationParameter(String.format(PROFILE_SCOPES, profile.get())).orElse("");
+        }
+
+        ConfiguredTimeLimits timeLimits = ConfiguredTimeLimits.fromParameters(context::getConfigurationParameter,
+                                                                              speedFactor, parseValidation(context));
+        timeLimits.resolveDefaultCategories();
+
+        boolean enforce = context.getConfigurationParameter(ENFORCE_PARAMETER).map(Boolean::parseBoolean).orElse(false);
+        RuntimeHistory history = context.getConfigurationParameter(HISTORY_PARAMETER)
+                                        .map(dir -> RuntimeHistory.open(Paths.get(dir)))
+                                        .orElse(null);
+
+        // a fork of a build reports into the shared directory of all forks instead
+        TimingReport report = context.getConfigurationParameter(FORKS_PARAMETER)
+                                     .map(dir -> TimingReport.openFork(Paths.get(dir), ForkAggregation.build(
+                                             context.getConfigurationParameter(FORKS_BUILD))))
+                                     .orElseGet(() -> context.getConfigurationParameter(REPORT_PARAMETER)
+                                                             .map(file -> TimingReport.open(Paths.get(file)))
+                                                             .orElse(null));
+
+        Baseline baseline = context.getConfigurationParameter(BASELINE_PARAMETER).map(file -> Baseline.read(
+                Paths.get(file),
+                context.getConfigurationParameter(BASELINE_TOLERANCE).map(Double::parseDouble).orElse(0.2),
+                ConfiguredTimeLimits.parseMillis(context::getConfigurationParameter, BASELINE_SLACK)
+                                    .orElse(Duration.ofMillis(5)).toNanos()))
+                                             .orElse(null);
+
+        ScopedScales scopedScales = scopes.trim().isEmpty() ? ScopedScales.NONE
+                                                            : ScopedScales.parse(scopes, SCOPES_PARAMETER);
+
+        return new Settings(timeLimits, scopedScales, enforce, history, report, baseline,
+                            context::getConfigurationParameter);
+    }
+
+    /**
+     * @return the factor the bounds of the tests of the class are scaled with, besides the global one
+     */
+    double scale(Class<?> testClass) {
+        return scopes.scaleOf(testClass.getName());
+    }
+
+    MeasuredTime measuredTime(String category) {
+        MeasuredTime measuredTime = measuredTimes.get(category);
+        return measuredTime != null ? measuredTime : measuredTimes.computeIfAbsent(category, measuredTimeResolver);
+    }
+
+    /**
+     * @return the bytes a test of the category may allocate, configured with
+     * {@code com.github.danny02.timeout.<category>.allocation}
+     */
+    Optional<Long> allocationLimit(String category) {
+        Optional<Long> limit = allocationLimits.get(category);
+        return limit != null ? limit : allocationLimits.computeIfAbsent(category, allocationLimitResolver);
+    }
+
+    void recordMetrics(String testId, String category, long runtimeNanos, String verdict) {
+        if (metricsSinks.isEmpty()) {
+            return;
+        }
+        histograms.computeIfAbsent(category, c -> new RuntimeHistogram()).record(runtimeNanos);
+        for (MetricsSink sink : metricsSinks) {
+            sink.testTimed(testId, category, runtimeNanos, verdict);
+        }
+    }
+
+    private MeasuredTime resolveMeasuredTime(String category) {
+        String key = String.format(CATEGORY_MEASURE, category);
+        return parameters.apply(key)
+                         .map(value -> checkSupported(MeasuredTime.parse(value, key)))
+                         .orElse(defaultMeasuredTime);
+    }
+
+    private Optional<Long> resolveAllocationLimit(String category) {
+        String key = String.format(CATEGORY_ALLOCATION, category);
+        return parameters.apply(key).map(value -> {
+            if (!ThreadAllocation.isSupported()) {
+                throw new RuntimeException("an allocation limit was configured for category '" + category +
+                                           "', but this JVM can't measure the allocations of a thread");
+            }
+            return ThreadAllocation.parseBytes(value, key);
+        });
+    }
+
+    private static MeasuredTime checkSupported(MeasuredTime measuredTime) {
+        if (measuredTime == MeasuredTime.CPU && !ManagementFactory.getThreadMXBean().isCurrentThreadCpuTimeSupported()) {
+            throw new RuntimeException("CPU time was configured to be validated, but this JVM can't measure it");
+        }
+        return measuredTime;
+    }
+
+    @Override
+    public void close() throws Throwable {
+        try {
+            if (report != null) {
+                report.close();
+            }
+            // with forks, the budget applies to the violations of the whole build merged so far
+            int buildViolations = -1;
+            if (forksDirectory != null) {
+                buildViolations = ForkAggregation.merge(forksDirectory, forksBuild);
+            }
+            for (MetricsSink sink : metricsSinks) {
+                sink.runFinished(Collections.unmodifiableMap(histograms));
+            }
+            if (violations != null) {
+                String summary = violations.summary();
+                Path   file    = Paths.get(parameters.apply(VIOLATIONS_FILE).orElse("target/timelimit-violations.txt"));
+                Path   parent  = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.write(file, summary.getBytes(StandardCharsets.UTF_8));
+                int count = buildViolations >= 0 ? buildViolations : violations.size();
+                if (count > violationBudget) {
+                    String forks = buildViolations >= 0
+                                   ? String.format("They were counted over all forks of the build, see %s.%n",
+                                                   forksDirectory.resolve(ForkAggregation.SUMMARY_FILE))
+                                   : "";
+                    throw new RuntimeException(String.format("%d time limit violations exceed the budget of %d.%n",
+                                                             count, violationBudget) + forks + summary);
+                }
+            }
+        } finally {
+            if (history != null) {
+                try {
+                    history.writeRecategorizationReport(timeLimits);
+                    Optional<String> tuneFile = parameters.apply(TUNE_PARAMETER);
+                    if (tuneFile.isPresent()) {
+                        history.writeCategoryProposal(Paths.get(tuneFile.get()), timeLimits);
+                    }
+                } finally {
+                    history.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a collector if violations should be summarized at the end of the run instead of failing the tests
+     */
+    private static ViolationCollector parseViolations(Function<String, Optional<String>> parameters) {
+        String mode = parameters.apply(VIOLATIONS_PARAMETER).orElse("fail").trim();
+        switch (mode) {
+            case "fail":
+                return null;
+            case "collect":
+                return new ViolationCollector();
+            default:
+                throw new RuntimeException("unknown value '" + mode + "' for configuration parameter '" +
+                                           VIOLATIONS_PARAMETER + "', expected fail or collect");
+        }
+    }
+
+    private static RuntimeValidation parseValidation(ExtensionContext context) {
+        String mode = context.getConfigurationParameter(VALIDATION_PARAMETER).orElse("strict").trim();
+        switch (mode) {
+            case "strict":
+                return RuntimeValidation.strict();
+            case "quantile":
+                double quantile = context.getConfigurationParameter(QUANTILE_PARAMETER)
+                                         .map(Double::parseDouble)
+                                         .orElse(0.9);
+                return RuntimeValidation.quantile(quantile);
+            case "consecutive":
+                int runs = context.getConfigurationParameter(CONSECUTIVE_PARAMETER)
+                                  .map(Integer::parseInt)
+                                  .orElse(3);
+                return RuntimeValidation.consecutive(runs);
+            default:
+                throw new RuntimeException("unknown value '" + mode + "' for configuration parameter '" +
+                                           VALIDATION_PARAMETER + "', expected one of strict, quantile or consecutive");
+        }
+    }
+}
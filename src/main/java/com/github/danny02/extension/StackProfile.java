@@ -0,0 +1,86 @@
+package com.github.danny02.extension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Samples the stack of a slow test thread. Sampling only starts once the test ran for the given
+ * delay, a test which completes before pays for nothing but scheduling and cancelling the trigger.
+ * The samples are kept as collapsed stacks, which flame graph tools read directly.
+ */
+final class StackProfile {
+    private final Thread                   thread;
+    private final ScheduledExecutorService scheduler;
+    private final long                     intervalNanos;
+    private final Map<String, Integer>     stacks = new HashMap<>();
+
+    private ScheduledFuture<?> trigger, sampling;
+    private boolean            stopped;
+
+    private StackProfile(Thread thread, ScheduledExecutorService scheduler, long intervalNanos) {
+        this.thread = thread;
+        this.scheduler = scheduler;
+        this.intervalNanos = intervalNanos;
+    }
+
+    static StackProfile start(Thread thread, ScheduledExecutorService scheduler, long delayNanos, long intervalNanos) {
+        StackProfile profile = new StackProfile(thread, scheduler, intervalNanos);
+        synchronized (profile) {
+            profile.trigger = scheduler.schedule(profile::startSampling, delayNanos, NANOSECONDS);
+        }
+        return profile;
+    }
+
+    private synchronized void startSampling() {
+        if (!stopped) {
+            sampling = scheduler.scheduleAtFixedRate(this::sample, 0, intervalNanos, NANOSECONDS);
+        }
+    }
+
+    private void sample() {
+        String collapsed = collapse(thread.getStackTrace());
+        synchronized (this) {
+            if (!stopped && !collapsed.isEmpty()) {
+                stacks.merge(collapsed, 1, Integer::sum);
+            }
+        }
+    }
+
+    static String collapse(StackTraceElement[] stack) {
+        StringBuilder collapsed = new StringBuilder();
+        for (int i = stack.length - 1; i >= 0; i--) {
+            if (collapsed.length() > 0) {
+                collapsed.append(';');
+            }
+            collapsed.append(stack[i].getClassName()).append('.').append(stack[i].getMethodName());
+        }
+        return collapsed.toString();
+    }
+
+    /**
+     * @return the sampled stacks, most frequent first, as {@code frame;frame;frame count}
+     */
+    synchronized List<String> stop() {
+        stopped = true;
+        trigger.cancel(false);
+        if (sampling == null) {
+            return Collections.emptyList();
+        }
+        sampling.cancel(false);
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(stacks.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        List<String> lines = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Integer> entry : entries) {
+            lines.add(entry.getKey() + " " + entry.getValue());
+        }
+        return lines;
+    }
+}
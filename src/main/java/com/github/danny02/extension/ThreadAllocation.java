@@ -0,0 +1,67 @@
+package com.github.danny02.extension;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Measures the bytes a test thread allocates on the heap, with the counter HotSpot keeps per thread anyway.
+ * Allocations of other threads, like the ones of a thread pool the test hands work to, are not counted.
+ */
+final class ThreadAllocation {
+    private static final ThreadMXBean THREADS   = threads();
+    private static final boolean      SUPPORTED = THREADS != null && THREADS.isThreadAllocatedMemorySupported()
+                                                  && THREADS.isThreadAllocatedMemoryEnabled();
+
+    private ThreadAllocation() {
+    }
+
+    static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * @return the bytes the current thread allocated since it started
+     */
+    static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Parses a number of bytes with an optional {@code k}, {@code m} or {@code g} suffix, like {@code 64m}.
+     */
+    static long parseBytes(String value, String key) {
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        int    shift   = 0;
+        if (!trimmed.isEmpty()) {
+            switch (trimmed.charAt(trimmed.length() - 1)) {
+                case 'k':
+                    shift = 10;
+                    break;
+                case 'm':
+                    shift = 20;
+                    break;
+                case 'g':
+                    shift = 30;
+                    break;
+                default:
+            }
+        }
+        try {
+            long bytes = Long.parseLong(shift == 0 ? trimmed : trimmed.substring(0, trimmed.length() - 1));
+            if (bytes < 0 || bytes > Long.MAX_VALUE >> shift) {
+                throw new NumberFormatException("out of range");
+            }
+            return bytes << shift;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("malformed value '" + value + "' for configuration parameter '" + key + "', " +
+                                       "expected a number of bytes like 512k, 64m or 1g", e);
+        }
+    }
+
+    private static ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof ThreadMXBean ? (ThreadMXBean) threads : null;
+    }
+}
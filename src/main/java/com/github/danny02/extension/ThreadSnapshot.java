@@ -0,0 +1,110 @@
+package com.github.danny02.extension;
+
+import com.sun.management.OperatingSystemMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The live threads of the JVM and their CPU time at one point in time. Comparing two snapshots shows the CPU time
+ * other threads used in between, like pool threads or the carriers of virtual threads, and which threads got
+ * started.
+ * <p>
+ * The CPU time of a thread can't be read anymore once it terminated, like the one of an executor a test shuts
+ * down before it returns. So the CPU time of the whole process is taken as well, which still contains it.
+ */
+final class ThreadSnapshot {
+    private static final ThreadMXBean          THREADS   = ManagementFactory.getThreadMXBean();
+    private static final boolean               CPU_TIMED = THREADS.isThreadCpuTimeSupported()
+                                                           && THREADS.isThreadCpuTimeEnabled();
+    private static final OperatingSystemMXBean PROCESS   = process();
+    private static final String                OWN       = "junit-timelimit-";
+    private static final String                COMMON    = "ForkJoinPool.commonPool-worker";
+
+    private final long[] ids;
+    private final long[] cpuNanos;
+    private final long   processCpuNanos;
+
+    private ThreadSnapshot(long[] ids, long[] cpuNanos, long processCpuNanos) {
+        this.ids = ids;
+        this.cpuNanos = cpuNanos;
+        this.processCpuNanos = processCpuNanos;
+    }
+
+    static ThreadSnapshot take() {
+        long[] ids = THREADS.getAllThreadIds();
+        Arrays.sort(ids);
+        long[] cpuNanos = null;
+        if (CPU_TIMED) {
+            cpuNanos = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                cpuNanos[i] = THREADS.getThreadCpuTime(ids[i]);
+            }
+        }
+        return new ThreadSnapshot(ids, cpuNanos, PROCESS != null ? PROCESS.getProcessCpuTime() : -1);
+    }
+
+    /**
+     * @return the CPU time all threads but the excluded one used since the start, including the threads which
+     * terminated in between, 0 if the JVM can't measure it
+     */
+    long cpuNanosSince(ThreadSnapshot start, long excludedThreadId) {
+        if (cpuNanos == null) {
+            return 0;
+        }
+        long live     = 0;
+        long excluded = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (cpuNanos[i] < 0) {
+                continue;
+            }
+            int  before = Arrays.binarySearch(start.ids, ids[i]);
+            long used   = Math.max(0, before < 0 ? cpuNanos[i] : cpuNanos[i] - Math.max(0, start.cpuNanos[before]));
+            if (ids[i] == excludedThreadId) {
+                excluded = used;
+            } else {
+                live += used;
+            }
+        }
+        if (processCpuNanos < 0 || start.processCpuNanos < 0) {
+            return live;
+        }
+        // the process clock can be coarser than the one of the threads, it is only trusted when it saw more
+        return Math.max(live, processCpuNanos - start.processCpuNanos - excluded);
+    }
+
+    /**
+     * @return the names of the threads which got started since the start and are still running, and the common
+     * pool, if it still executes tasks
+     */
+    List<String> startedSince(ThreadSnapshot start) {
+        long[] started = Arrays.stream(ids).filter(id -> Arrays.binarySearch(start.ids, id) < 0).toArray();
+        List<String> running = Collections.emptyList();
+        if (started.length > 0) {
+            running = new ArrayList<>();
+            for (ThreadInfo info : THREADS.getThreadInfo(started)) {
+                // the common pool keeps idle workers around, it is checked as a whole
+                if (info != null && !info.getThreadName().startsWith(OWN) && !info.getThreadName().startsWith(COMMON)) {
+                    running.add(info.getThreadName());
+                }
+            }
+        }
+        ForkJoinPool common = ForkJoinPool.commonPool();
+        if (!common.isQuiescent()) {
+            running = new ArrayList<>(running);
+            running.add(String.format("%d active workers of the common pool", common.getActiveThreadCount()));
+        }
+        return running;
+    }
+
+    private static OperatingSystemMXBean process() {
+        java.lang.management.OperatingSystemMXBean process = ManagementFactory.getOperatingSystemMXBean();
+        return process instanceof OperatingSystemMXBean ? (OperatingSystemMXBean) process : null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.danny02.extension;
+
+import java.time.Clock;
+import java.time.Instant;
+
+@FunctionalInterface
+public interface Ticker {
+
+    /**
+     * @return the current time in nanoseconds, only meaningful relative to other readings of the same ticker
+     */
+    long read();
+
+    static Ticker system() {
+        return System::nanoTime;
+    }
+
+    static Ticker fromClock(Clock clock) {
+        return () -> {
+            Instant now = clock.instant();
+            return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        };
+    }
+}
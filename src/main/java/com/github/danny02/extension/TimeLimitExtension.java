@@ -1,86 +1,552 @@
 package com.github.danny02.extension;
 
-import com.github.danny02.annotation.TimeLimit;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
 import org.junit.jupiter.api.extension.Extension;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
 import org.junit.jupiter.api.extension.ExtensionContext.Store;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Method;
 import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
 
-import static org.junit.platform.commons.support.AnnotationSupport.findAnnotation;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
-public class TimeLimitExtension implements Extension, BeforeTestExecutionCallback, AfterTestExecutionCallback {
-    private static final String START_TIME               = "start time";
-    private static final String TIMEOUT_PARAMETER_PREFIX = "com.github.danny02.timeout.";
-    private static final String TIMEOUT_LOWER            = ".lower";
-    private static final String TIMEOUT_UPPER            = ".upper";
+public class TimeLimitExtension implements Extension, BeforeAllCallback, AfterAllCallback,
+                                           BeforeEachCallback, AfterEachCallback,
+                                           BeforeTestExecutionCallback, AfterTestExecutionCallback {
+    private static final Namespace    NAMESPACE = Namespace.create(TimeLimitExtension.class);
+    private static final ThreadMXBean THREADS   = ManagementFactory.getThreadMXBean();
 
-
-    private final Clock clock;
+    private final Ticker ticker;
 
     public TimeLimitExtension() {
-        this(Clock.systemDefaultZone());
+        this(Ticker.system());
     }
 
     public TimeLimitExtension(Clock clock) {
-        this.clock = clock;
+        this(Ticker.fromClock(clock));
+    }
+
+    public TimeLimitExtension(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        long     startNanos = ticker.read();
+        Settings settings   = getSettings(context);
+        if (!context.getTestClass().isPresent()) {
+            return;
+        }
+        Class<?> testClass = context.getRequiredTestClass();
+        getStore(context).put(ClassPhases.class,
+                              new ClassPhases(CategoryResolver.categoryOf(testClass).orElse(null), startNanos));
+        if (settings.baseline != null) {
+            getStore(context).put(Baseline.ClassTally.class, new Baseline.ClassTally());
+        }
+        CategoryResolver.totalCategoryOf(testClass).ifPresent(category -> {
+            TimeoutBound bounds = scale(settings.timeLimits.lookUpBounds(category), settings.scale(testClass));
+            if (bounds.isUpperBounded()) {
+                getStore(context).put(Budget.class, new Budget(category, bounds, startNanos));
+            }
+        });
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        long        endNanos = ticker.read();
+        ClassPhases phases   = getStore(context).remove(ClassPhases.class, ClassPhases.class);
+        Budget      budget   = getStore(context).remove(Budget.class, Budget.class);
+        if (phases == null) {
+            return;
+        }
+        phases.finish(endNanos);
+        reportBaseline(context, getStore(context).remove(Baseline.ClassTally.class, Baseline.ClassTally.class));
+
+        Settings     settings = getSettings(context);
+        List<String> errors   = new ArrayList<>();
+        if (settings.reportPhases) {
+            Map<String, String> entries = new LinkedHashMap<>();
+            for (Phase phase : Phase.values()) {
+                entries.put("timelimit." + phase, String.valueOf(NANOSECONDS.toMillis(phases.nanos(phase))));
+            }
+            context.publishReportEntry(entries);
+        }
+        if (phases.category != null) {
+            double scale = settings.scale(context.getRequiredTestClass());
+            settings.timeLimits.validatePhase(phases.nanos(Phase.BEFORE_ALL), phases.category, Phase.BEFORE_ALL, scale)
+                               .ifPresent(errors::add);
+            settings.timeLimits.validatePhase(phases.nanos(Phase.AFTER_ALL), phases.category, Phase.AFTER_ALL, scale)
+                               .ifPresent(errors::add);
+        }
+        if (budget != null && endNanos - budget.startNanos > budget.limitNanos) {
+            errors.add(String.format("The test class took %dms, but its total time limit '%s' allows at most %dms.",
+                                     NANOSECONDS.toMillis(endNanos - budget.startNanos),
+                                     budget.category, NANOSECONDS.toMillis(budget.limitNanos)));
+        }
+        failOn(errors);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        long        beforeEachNanos = ticker.read();
+        ClassPhases phases          = getStore(context).get(ClassPhases.class, ClassPhases.class);
+        boolean     firstOfClass    = phases != null && phases.testStarted(beforeEachNanos);
+
+        Method           testMethod = context.getRequiredTestMethod();
+        Optional<String> category   = getCategoryFromAnnotation(testMethod);
+        Optional<String> total      = CategoryResolver.totalCategoryOf(testMethod);
+        Measurement      measurement;
+        if (category.isPresent() || total.isPresent()) {
+            Settings settings = getSettings(context);
+            double   scale    = settings.scale(context.getRequiredTestClass());
+            measurement = category.isPresent()
+                          ? new Measurement(category.get(), scale(settings.timeLimits.lookUpBounds(category.get()), scale),
+                                            settings.measuredTime(category.get()))
+                          : new Measurement(null, null, MeasuredTime.WALL);
+            measurement.scale = scale;
+            if (total.isPresent()) {
+                measurement.budget = getInvocationsBudget(context, testMethod, total.get(), settings, scale);
+            }
+        } else {
+            measurement = new Measurement(null, null, MeasuredTime.WALL);
+        }
+        measurement.beforeEachNanos = beforeEachNanos;
+        measurement.firstOfClass = firstOfClass;
+        getStore(context).put(Measurement.class, measurement);
     }
 
     @Override
     public void beforeTestExecution(ExtensionContext context) {
-        setStartTime(context, now());
+        Measurement measurement = getStore(context).get(Measurement.class, Measurement.class);
+        if (measurement == null) {
+            return;
+        }
+        if (measurement.category != null && measurement.bounds.isUpperBounded()) {
+            Settings settings = getSettings(context);
+            // a wall clock deadline would cut off tests which are measured on the CPU before they used up their time
+            if (settings.enforce && measurement.measuredTime == MeasuredTime.WALL) {
+                measurement.deadline = Watchdog.shared().arm(Thread.currentThread(), measurement.bounds.upper);
+            }
+            if (settings.samplingThreshold > 0) {
+                Duration delay = Duration.ofNanos((long) (measurement.bounds.upperNanos * settings.samplingThreshold));
+                measurement.profile = Watchdog.shared().profile(Thread.currentThread(), delay, settings.samplingInterval);
+            }
+            // the counters are taken as start values and replaced by the deltas after the test
+            if (settings.warmUp != WarmUp.IGNORE) {
+                measurement.loadedClasses = JvmActivity.loadedClasses();
+                measurement.compilationMillis = JvmActivity.compilationMillis();
+            }
+            if (settings.compensateGc) {
+                measurement.gcPauseMillis = JvmActivity.gcPauseMillis();
+            }
+        }
+
+        if (measurement.category != null) {
+            Settings settings = getSettings(context);
+            settings.allocationLimit(measurement.category).ifPresent(limit -> measurement.allocationLimit = limit);
+            if (settings.async != AsyncAccounting.OFF) {
+                measurement.threads = ThreadSnapshot.take();
+            }
+            if (TimingEvents.TEST_TIMED.isEnabled()) {
+                measurement.event = new TimingEvents.TestTimed();
+                measurement.event.begin();
+            }
+        }
+        // taken last, so the snapshot and the event above don't count towards the test
+        if (measurement.allocationLimit >= 0) {
+            measurement.allocatedBytes = ThreadAllocation.allocatedBytes();
+        }
+        // besides measuring the runtime, the CPU time limits the warm-up discount
+        if (measurement.category != null) {
+            measurement.startCpuNanos = THREADS.getCurrentThreadCpuTime();
+        }
+        measurement.startNanos = ticker.read();
     }
 
     @Override
     public void afterTestExecution(ExtensionContext context) {
-        Optional<String> category = getCategoryFromAnnotation(context.getRequiredTestMethod());
-        category.ifPresent(cat -> {
-            Duration             runtime      = Duration.between(getStartTime(context), now());
-            ConfiguredTimeLimits configuration = fromContext(context);
-
-            configuration.validateRuntime(runtime, cat).ifPresent(error -> {
-                throw new RuntimeException(error);
-            });
+        long        endNanos    = ticker.read();
+        Measurement measurement = getStore(context).get(Measurement.class, Measurement.class);
+        if (measurement == null) {
+            return;
+        }
+        // the test thread's counters and the deadline come first, the bookkeeping below doesn't belong to the test
+        if (measurement.category != null) {
+            measurement.cpuNanos = THREADS.getCurrentThreadCpuTime() - measurement.startCpuNanos;
+        }
+        if (measurement.allocationLimit >= 0) {
+            measurement.allocatedBytes = ThreadAllocation.allocatedBytes() - measurement.allocatedBytes;
+        }
+        boolean interrupted = measurement.deadline != null && measurement.deadline.disarm();
+        measurement.endNanos = endNanos;
+        measurement.executed = true;
+        if (measurement.threads != null) {
+            measurement.asyncCpuNanos = ThreadSnapshot.take().cpuNanosSince(measurement.threads,
+                                                                            Thread.currentThread().getId());
+        }
+        if (measurement.event != null) {
+            measurement.event.end();
+        }
+        if (measurement.profile != null) {
+            measurement.stacks = measurement.profile.stop();
+        }
+        if (measurement.category != null && measurement.bounds.isUpperBounded()) {
+            Settings settings = getSettings(context);
+            if (settings.warmUp != WarmUp.IGNORE) {
+                measurement.loadedClasses = JvmActivity.loadedClasses() - measurement.loadedClasses;
+                measurement.compilationMillis = JvmActivity.compilationMillis() - measurement.compilationMillis;
+            }
+            if (settings.compensateGc) {
+                measurement.gcPauseMillis = JvmActivity.gcPauseMillis() - measurement.gcPauseMillis;
+            }
+        }
+        if (measurement.category == null && measurement.budget == null) {
+            return;
+        }
+        long wallTime = endNanos - measurement.startNanos;
+        long runtime  = wallTime;
+        if (measurement.measuredTime == MeasuredTime.CPU) {
+            runtime = measurement.cpuNanos;
+        } else if (measurement.gcPauseMillis > 0) {
+            // a pause stops the test thread as well, but doesn't use its CPU time
+            runtime = Math.max(0, runtime - MILLISECONDS.toNanos(measurement.gcPauseMillis));
+        }
+        boolean exceededBudget = measurement.budget != null && measurement.budget.spend(wallTime);
+
+        if (interrupted) {
+            publish(context, measurement, runtime, "interrupted", Optional.empty());
+            throw new RuntimeException(String.format("The test was categorized as '%s' and got interrupted, " +
+                                                     "because it did not complete in between %s.",
+                                                     measurement.category, measurement.bounds) +
+                                       describeStacks(context, measurement),
+                                       measurement.deadline.stackDump());
+        }
+
+        if (measurement.category != null) {
+            validateRuntime(context, measurement, runtime, wallTime);
+        }
+
+        if (exceededBudget) {
+            throw new RuntimeException(String.format("The invocations of the test took %dms in total, which exceeds " +
+                                                     "its total time limit '%s' of %dms.",
+                                                     NANOSECONDS.toMillis(measurement.budget.spentNanos()),
+                                                     measurement.budget.category,
+                                                     NANOSECONDS.toMillis(measurement.budget.limitNanos)));
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        long        afterEachNanos = ticker.read();
+        Measurement measurement    = getStore(context).remove(Measurement.class, Measurement.class);
+        if (measurement == null) {
+            return;
+        }
+        // a failing @BeforeEach method skips the test execution callbacks
+        long beforeEach = (measurement.executed ? measurement.startNanos : afterEachNanos) - measurement.beforeEachNanos;
+        long afterEach  = measurement.executed ? afterEachNanos - measurement.endNanos : 0;
+
+        ClassPhases phases = getStore(context).get(ClassPhases.class, ClassPhases.class);
+        if (phases != null) {
+            phases.add(Phase.BEFORE_EACH, beforeEach);
+            phases.add(Phase.AFTER_EACH, afterEach);
+            if (measurement.executed) {
+                phases.add(Phase.BODY, measurement.endNanos - measurement.startNanos);
+            }
+            phases.testFinished(afterEachNanos);
+        }
+
+        if (measurement.category != null) {
+            ConfiguredTimeLimits timeLimits = getSettings(context).timeLimits;
+            List<String>         errors     = new ArrayList<>();
+            // @AfterEach methods had the chance to shut down what the test started
+            if (measurement.threads != null && measurement.executed) {
+                checkStillRunning(context, measurement).ifPresent(errors::add);
+            }
+            timeLimits.validatePhase(beforeEach, measurement.category, Phase.BEFORE_EACH, measurement.scale)
+                      .ifPresent(errors::add);
+            timeLimits.validatePhase(afterEach, measurement.category, Phase.AFTER_EACH, measurement.scale)
+                      .ifPresent(errors::add);
+            failOn(errors);
+        }
+    }
+
+    private static void failOn(List<String> errors) {
+        if (!errors.isEmpty()) {
+            throw new RuntimeException(String.join("\n", errors));
+        }
+    }
+
+    private void validateRuntime(ExtensionContext context, Measurement measurement, long runtime, long wallTime) {
+        Settings                 settings = getSettings(context);
+        Optional<RuntimeSamples> history  = Optional.empty();
+        if (settings.history != null) {
+            history = Optional.of(settings.history.record(context.getUniqueId(), measurement.category, runtime));
+        }
+
+        Optional<String> violation      = settings.timeLimits.validateRuntime(runtime, measurement.category,
+                                                                              measurement.scale, history);
+        Optional<String> overAllocation = validateAllocation(measurement);
+        Optional<String> regression     = compareToBaseline(context, runtime);
+        boolean          warmingUp      = measurement.loadedClasses > 0 || measurement.compilationMillis > 0;
+        boolean          discounted     = false;
+        if (violation.isPresent() && warmingUp && settings.warmUp == WarmUp.DISCOUNT && measurement.firstOfClass
+            && runtime > measurement.bounds.upperNanos) {
+            // the compiler threads run besides the test, they only slowed it down while it used the CPU itself
+            long discount  = Math.min(MILLISECONDS.toNanos(measurement.compilationMillis), measurement.cpuNanos);
+            long remainder = Math.max(0, runtime - discount);
+            if (!settings.timeLimits.validateRuntime(remainder, measurement.category, measurement.scale, history)
+                                    .isPresent()) {
+                violation = Optional.empty();
+                discounted = true;
+            }
+        }
+        if (violation.isPresent() && warmingUp && settings.warmUp != WarmUp.IGNORE) {
+            violation = Optional.of(violation.get() + String.format(
+                    "\nWhile the test ran, %d classes were loaded and the JIT compiled for %dms, " +
+                    "so the runtime might include the warm-up of the JVM.",
+                    measurement.loadedClasses, measurement.compilationMillis));
+        }
+        // a discounted run still fails for the other checks
+        String verdict = violation.isPresent() ? "violation"
+                         : overAllocation.isPresent() ? "allocation"
+                         : regression.isPresent() ? "regression"
+                         : discounted ? "warmup"
+                         : measurement.bounds.isInBound(runtime) ? "ok" : "tolerated";
+        publish(context, measurement, runtime, verdict, history);
+        if (measurement.asyncCpuNanos > 0) {
+            context.publishReportEntry("timelimit.async.cpu",
+                                       String.valueOf(NANOSECONDS.toMillis(measurement.asyncCpuNanos)));
+        }
+
+        if (violation.isPresent() && settings.violations != null) {
+            collect(context, measurement, runtime, history, violation.get());
+            violation = Optional.empty();
+        }
+
+        List<String> errors = new ArrayList<>();
+        violation.ifPresent(error -> {
+            if (measurement.measuredTime == MeasuredTime.CPU) {
+                error += String.format("\nThe runtime is the CPU time of the test thread, the wall time was %dms.",
+                                       NANOSECONDS.toMillis(wallTime));
+            } else if (measurement.gcPauseMillis > 0) {
+                error += String.format("\nThe runtime excludes %dms of GC pauses, the wall time was %dms.",
+                                       measurement.gcPauseMillis, NANOSECONDS.toMillis(wallTime));
+            }
+            if (measurement.asyncCpuNanos > 0) {
+                error += String.format("\nOther threads used %dms of CPU time while the test ran.",
+                                       NANOSECONDS.toMillis(measurement.asyncCpuNanos));
+            }
+            errors.add(error);
         });
+        overAllocation.ifPresent(errors::add);
+        regression.filter(r -> settings.failOnRegression).ifPresent(errors::add);
+        if (!errors.isEmpty()) {
+            throw new RuntimeException(String.join("\n", errors) + describeStacks(context, measurement));
+        }
     }
 
-    public Optional<String> getCategoryFromAnnotation(Method testMethod) {
-        Class<?> testClass = testMethod.getDeclaringClass();
-        return findAnnotation(testMethod, TimeLimit.class).or(() -> findAnnotation(testClass, TimeLimit.class))
-                                                          .map(a -> a.value());
+    /**
+     * Records the violation for the summary at the end of the run instead of failing the test.
+     */
+    private void collect(ExtensionContext context, Measurement measurement, long runtime,
+                         Optional<RuntimeSamples> history, String violation) {
+        Settings         settings  = getSettings(context);
+        Optional<String> suggested = suggestCategory(settings, measurement, runtime, history);
+        settings.violations.add(new ViolationCollector.Violation(context.getUniqueId(), measurement.category,
+                                                                 measurement.bounds, runtime,
+                                                                 suggested.filter(s -> !s.equals(measurement.category))));
+        context.publishReportEntry("timelimit.violation", violation);
     }
 
-    private ConfiguredTimeLimits fromContext(ExtensionContext context) {
-        Function<String, Function<String, Optional<Duration>>> lookup = bound -> category ->
-                context.getConfigurationParameter(TIMEOUT_PARAMETER_PREFIX + category + bound)
-                       .map(Long::parseLong)
-                       .map(Duration::ofMillis);
+    /**
+     * Suggests the same category as the failure message, based on the recorded runtimes if there are enough.
+     */
+    private static Optional<String> suggestCategory(Settings settings, Measurement measurement, long runtime,
+                                                    Optional<RuntimeSamples> history) {
+        return history.filter(h -> h.size() >= ConfiguredTimeLimits.MIN_HISTORY_SAMPLES)
+                      .map(h -> settings.timeLimits.suggestCategory(h, measurement.scale))
+                      .orElseGet(() -> settings.timeLimits.smallestDefaultCategoryForDuration(
+                              Duration.ofNanos(Math.round(runtime / measurement.scale))));
+    }
+
+    /**
+     * @return a description of the regression, if the test got slower than in the baseline
+     */
+    private Optional<String> compareToBaseline(ExtensionContext context, long runtime) {
+        Baseline baseline = getSettings(context).baseline;
+        long     previous = baseline == null ? Baseline.MISSING : baseline.runtimeNanos(context.getUniqueId());
+        if (previous == Baseline.MISSING) {
+            return Optional.empty();
+        }
+        Baseline.ClassTally tally = getStore(context).get(Baseline.ClassTally.class, Baseline.ClassTally.class);
+        if (tally != null) {
+            tally.compared.incrementAndGet();
+            tally.runtimeNanos.addAndGet(runtime);
+            tally.baselineNanos.addAndGet(previous);
+        }
+        String comparison = String.format("took %dms, %dms in the baseline", NANOSECONDS.toMillis(runtime),
+                                          NANOSECONDS.toMillis(previous));
+        if (baseline.isRegression(runtime, previous)) {
+            if (tally != null) {
+                tally.regressions.incrementAndGet();
+            }
+            context.publishReportEntry("timelimit.baseline", "regression, " + comparison);
+            return Optional.of(String.format("The test took %dms, which is slower than the %dms of the baseline.",
+                                             NANOSECONDS.toMillis(runtime), NANOSECONDS.toMillis(previous)));
+        }
+        if (baseline.isImprovement(runtime, previous)) {
+            if (tally != null) {
+                tally.improvements.incrementAndGet();
+            }
+            context.publishReportEntry("timelimit.baseline", "improvement, " + comparison);
+        }
+        return Optional.empty();
+    }
 
-        return new ConfiguredTimeLimits(lookup.apply(TIMEOUT_LOWER), lookup.apply(TIMEOUT_UPPER));
+    private static void reportBaseline(ExtensionContext context, Baseline.ClassTally tally) {
+        if (tally == null || tally.compared.get() == 0) {
+            return;
+        }
+        context.publishReportEntry("timelimit.baseline", String.format(
+                "%d of %d tests got slower and %d faster, they took %dms, %dms in the baseline",
+                tally.regressions.get(), tally.compared.get(), tally.improvements.get(),
+                NANOSECONDS.toMillis(tally.runtimeNanos.get()), NANOSECONDS.toMillis(tally.baselineNanos.get())));
     }
 
-    private Instant now() {
-        return Instant.now(clock);
+    /**
+     * @return an error if threads started by the test are still running and the accounting should fail on them
+     */
+    private Optional<String> checkStillRunning(ExtensionContext context, Measurement measurement) {
+        List<String> running = ThreadSnapshot.take().startedSince(measurement.threads);
+        if (running.isEmpty()) {
+            return Optional.empty();
+        }
+        context.publishReportEntry("timelimit.async.running", String.join(", ", running));
+        if (getSettings(context).async != AsyncAccounting.FAIL) {
+            return Optional.empty();
+        }
+        return Optional.of("Work started by the test is still running after it: " + String.join(", ", running));
     }
 
-    private void setStartTime(ExtensionContext context, Instant startTime) {
-        getStore(context).put(START_TIME, startTime);
+    private static Optional<String> validateAllocation(Measurement measurement) {
+        if (measurement.allocationLimit < 0 || measurement.allocatedBytes <= measurement.allocationLimit) {
+            return Optional.empty();
+        }
+        return Optional.of(String.format("The test thread allocated %d bytes, but category '%s' allows at most %d bytes.",
+                                         measurement.allocatedBytes, measurement.category, measurement.allocationLimit));
     }
 
-    private Instant getStartTime(ExtensionContext context) {
-        return getStore(context).remove(START_TIME, Instant.class);
+    private String describeStacks(ExtensionContext context, Measurement measurement) {
+        if (measurement.stacks.isEmpty()) {
+            return "";
+        }
+        Settings settings = getSettings(context);
+        return String.format("\nStacks sampled every %dms after %dms, most frequent first:\n",
+                             settings.samplingInterval.toMillis(),
+                             NANOSECONDS.toMillis((long) (measurement.bounds.upperNanos * settings.samplingThreshold))) +
+               String.join("\n", measurement.stacks);
+    }
+
+    /**
+     * Hands the result of a test to the report, the flight recorder and the metrics sinks, whichever are enabled.
+     */
+    private void publish(ExtensionContext context, Measurement measurement, long runtime, String verdict,
+                         Optional<RuntimeSamples> history) {
+        Settings settings = getSettings(context);
+        String   testId   = context.getUniqueId();
+
+        if (measurement.event != null) {
+            measurement.event.testId = testId;
+            measurement.event.category = measurement.category;
+            measurement.event.runtime = runtime;
+            measurement.event.verdict = verdict;
+            measurement.event.commit();
+        }
+        if (!verdict.equals("ok") && TimingEvents.BOUND_VIOLATED.isEnabled()) {
+            TimingEvents.BoundViolated violated = new TimingEvents.BoundViolated();
+            violated.testId = testId;
+            violated.category = measurement.category;
+            violated.lower = measurement.bounds.lowerNanos;
+            violated.upper = measurement.bounds.upperNanos;
+            violated.runtime = runtime;
+            violated.verdict = verdict;
+            violated.commit();
+        }
+
+        // like the failure message, a single run only makes a suggestion for a test out of bounds
+        Optional<RuntimeSamples> usableHistory = history.filter(h -> h.size() >= ConfiguredTimeLimits.MIN_HISTORY_SAMPLES);
+        boolean                  suggest       = TimingEvents.CATEGORY_SUGGESTED.isEnabled()
+                                                 && (usableHistory.isPresent() || !verdict.equals("ok"));
+        if (settings.report != null || suggest) {
+            Optional<String> suggested = suggestCategory(settings, measurement, runtime, history);
+            if (settings.report != null) {
+                settings.report.add(new TimingReport.Result(testId, measurement.category, measurement.bounds,
+                                                            runtime, measurement.gcPauseMillis,
+                                                            measurement.allocatedBytes, verdict, suggested,
+                                                            measurement.stacks));
+            }
+            if (suggest && suggested.isPresent() && !suggested.get().equals(measurement.category)) {
+                TimingEvents.CategorySuggested suggestion = new TimingEvents.CategorySuggested();
+                suggestion.testId = testId;
+                suggestion.category = measurement.category;
+                suggestion.suggestedCategory = suggested.get();
+                suggestion.commit();
+            }
+        }
+
+        settings.recordMetrics(testId, measurement.category, runtime, verdict);
+    }
+
+    /**
+     * The budget is shared by all invocations of a test template, as they have the same parent context.
+     */
+    private Budget getInvocationsBudget(ExtensionContext context, Method testMethod, String category,
+                                        Settings settings, double scale) {
+        TimeoutBound bounds = scale(settings.timeLimits.lookUpBounds(category), scale);
+        if (!bounds.isUpperBounded()) {
+            return null;
+        }
+        Store store = context.getParent().orElse(context).getStore(NAMESPACE);
+        return store.getOrComputeIfAbsent(testMethod, key -> new Budget(category, bounds, ticker.read()), Budget.class);
+    }
+
+    private static TimeoutBound scale(TimeoutBound bounds, double scale) {
+        return scale == 1 ? bounds : bounds.scale(scale);
+    }
+
+    public Optional<String> getCategoryFromAnnotation(Method testMethod) {
+        return CategoryResolver.categoryOf(testMethod);
+    }
+
+    private Settings getSettings(ExtensionContext context) {
+        ExtensionContext root  = context.getRoot();
+        Store            store = root.getStore(NAMESPACE);
+
+        Settings settings = store.get(Settings.class, Settings.class);
+        if (settings == null) {
+            settings = store.getOrComputeIfAbsent(Settings.class, key -> Settings.fromContext(root), Settings.class);
+        }
+        return settings;
     }
 
     private Store getStore(ExtensionContext context) {
-        return context.getStore(Namespace.create(getClass(), context.getRequiredTestMethod()));
+        return context.getStore(NAMESPACE);
     }
 
 }
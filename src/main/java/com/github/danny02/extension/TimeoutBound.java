@@ -6,11 +6,16 @@ import java.util.Objects;
 import static java.time.Duration.ofMillis;
 
 public class TimeoutBound {
+    static final Duration UNBOUNDED = Duration.ofNanos(Long.MAX_VALUE);
+
     final Duration lower, upper;
+    final long     lowerNanos, upperNanos;
 
     public TimeoutBound(Duration lower, Duration upper) {
         this.lower = lower;
         this.upper = upper;
+        this.lowerNanos = saturatedNanos(lower);
+        this.upperNanos = saturatedNanos(upper);
     }
 
     public static TimeoutBound fromMs(long lowerInMs, long upperInMs) {
@@ -21,6 +26,33 @@ public class TimeoutBound {
         return d.compareTo(lower) >= 0 && d.compareTo(upper) <= 0;
     }
 
+    public boolean isInBound(long nanos) {
+        return nanos >= lowerNanos && nanos <= upperNanos;
+    }
+
+    public boolean isUpperBounded() {
+        return upper.compareTo(UNBOUNDED) < 0;
+    }
+
+    /**
+     * @return a rough estimate of the runtime of a test in this category
+     */
+    public long expectedNanos() {
+        return isUpperBounded() ? lowerNanos + (upperNanos - lowerNanos) / 2 : lowerNanos;
+    }
+
+    public TimeoutBound scale(double factor) {
+        return new TimeoutBound(scale(lower, factor), isUpperBounded() ? scale(upper, factor) : upper);
+    }
+
+    private static Duration scale(Duration d, double factor) {
+        return Duration.ofNanos(Math.round(saturatedNanos(d) * factor));
+    }
+
+    private static long saturatedNanos(Duration d) {
+        return d.compareTo(UNBOUNDED) < 0 ? d.toNanos() : Long.MAX_VALUE;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
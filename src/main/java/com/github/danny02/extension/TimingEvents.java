@@ -0,0 +1,86 @@
+package com.github.danny02.extension;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder events of the extension. They are only allocated and committed while a
+ * recording has them enabled, which the cached event types tell without creating an event.
+ */
+final class TimingEvents {
+    static final EventType TEST_TIMED         = EventType.getEventType(TestTimed.class);
+    static final EventType BOUND_VIOLATED     = EventType.getEventType(BoundViolated.class);
+    static final EventType CATEGORY_SUGGESTED = EventType.getEventType(CategorySuggested.class);
+
+    private TimingEvents() {
+    }
+
+    @Name("com.github.danny02.timelimit.TestTimed")
+    @Label("Test Timed")
+    @Description("The execution of the body of a categorized test")
+    @Category({"JUnit", "Time Limits"})
+    @StackTrace(false)
+    static final class TestTimed extends Event {
+        @Label("Test")
+        String testId;
+
+        @Label("Category")
+        String category;
+
+        @Label("Measured Runtime")
+        @Description("The runtime the category was validated against, which is CPU time if configured")
+        @Timespan
+        long runtime;
+
+        @Label("Verdict")
+        String verdict;
+    }
+
+    @Name("com.github.danny02.timelimit.BoundViolated")
+    @Label("Time Limit Violated")
+    @Category({"JUnit", "Time Limits"})
+    @StackTrace(false)
+    static final class BoundViolated extends Event {
+        @Label("Test")
+        String testId;
+
+        @Label("Category")
+        String category;
+
+        @Label("Lower Bound")
+        @Timespan
+        long lower;
+
+        @Label("Upper Bound")
+        @Timespan
+        long upper;
+
+        @Label("Measured Runtime")
+        @Timespan
+        long runtime;
+
+        @Label("Verdict")
+        String verdict;
+    }
+
+    @Name("com.github.danny02.timelimit.CategorySuggested")
+    @Label("Category Suggested")
+    @Category({"JUnit", "Time Limits"})
+    @StackTrace(false)
+    static final class CategorySuggested extends Event {
+        @Label("Test")
+        String testId;
+
+        @Label("Category")
+        String category;
+
+        @Label("Suggested Category")
+        String suggestedCategory;
+    }
+}
@@ -0,0 +1,277 @@
+package com.github.danny02.extension;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Streams one JSON line per measured test to a file. Tests only enqueue their result, a background
+ * thread formats and writes them in batches, so neither a flush per test nor all results of a run
+ * are held in memory.
+ */
+class TimingReport implements Closeable {
+    private static final int    QUEUE_CAPACITY = 64 * 1024;
+    private static final int    BATCH_SIZE     = 1024;
+    private static final Result END            = new Result(null, null, null, 0, 0, -1, null, null, null);
+
+    private final Path                  file;
+    private final BlockingQueue<Result> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread                writerThread;
+
+    private volatile Exception failure;
+
+    static final class Result {
+        final String           testId;
+        final String           category;
+        final TimeoutBound     bounds;
+        final long             runtimeNanos;
+        final long             gcPauseMillis;
+        final long             allocatedBytes;
+        final String           verdict;
+        final Optional<String> suggestedCategory;
+        final List<String>     stacks;
+
+        Result(String testId, String category, TimeoutBound bounds, long runtimeNanos, long gcPauseMillis,
+               long allocatedBytes, String verdict, Optional<String> suggestedCategory, List<String> stacks) {
+            this.testId = testId;
+            this.category = category;
+            this.bounds = bounds;
+            this.runtimeNanos = runtimeNanos;
+            this.gcPauseMillis = gcPauseMillis;
+            this.allocatedBytes = allocatedBytes;
+            this.verdict = verdict;
+            this.suggestedCategory = suggestedCategory;
+            this.stacks = stacks;
+        }
+    }
+
+    TimingReport(Path file, BufferedWriter out) {
+        this.file = file;
+        writerThread = new Thread(() -> write(out), "junit-timelimit-report");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    static TimingReport open(Path file) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            return new TimingReport(file, Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not create timing report " + file, e);
+        }
+    }
+
+    /**
+     * Opens a report of this JVM in a directory shared by the forks of a build. The file stays locked until the
+     * report is closed, so {@link ForkAggregation} can tell reports which are still written to.
+     */
+    static TimingReport openFork(Path directory, String build) {
+        try {
+            Files.createDirectories(directory);
+            Path        file    = Files.createTempFile(directory, ForkAggregation.forkPrefix(build),
+                                                       ForkAggregation.FORK_SUFFIX);
+            FileChannel channel = FileChannel.open(file, WRITE);
+            channel.lock();
+            return new TimingReport(file, new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not create timing report in " + directory, e);
+        }
+    }
+
+    void add(Result result) {
+        if (failure != null) {
+            // the report is incomplete anyway, the tests must not wait for it
+            return;
+        }
+        try {
+            queue.put(result);
+        } catch (InterruptedException e) {
+            // the watchdog interrupted the test, the result is still worth reporting
+            queue.offer(result);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(BufferedWriter out) {
+        List<Result> batch = new ArrayList<>(BATCH_SIZE);
+        boolean      ended = false;
+        try (BufferedWriter writer = out) {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Result result : batch) {
+                    if (result == END) {
+                        ended = true;
+                        return;
+                    }
+                    writer.write(toJson(result));
+                    writer.newLine();
+                }
+                batch.clear();
+                writer.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            // the failed batch might already hold the only END, close() would wait for another one forever
+            ended |= batch.contains(END);
+            // keep draining, so tests which enqueued before they saw the failure don't block on a full queue
+            try {
+                while (!ended) {
+                    batch.clear();
+                    batch.add(queue.take());
+                    queue.drainTo(batch);
+                    ended = batch.contains(END);
+                }
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static String toJson(Result result) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"id\":");
+        appendString(json, result.testId);
+        json.append(",\"category\":");
+        appendString(json, result.category);
+        json.append(",\"lowerMs\":").append(result.bounds.lower.toMillis());
+        json.append(",\"upperMs\":");
+        if (result.bounds.isUpperBounded()) {
+            json.append(result.bounds.upper.toMillis());
+        } else {
+            json.append("null");
+        }
+        json.append(",\"runtimeNanos\":").append(result.runtimeNanos);
+        json.append(",\"gcPauseMillis\":").append(result.gcPauseMillis);
+        json.append(",\"allocatedBytes\":");
+        if (result.allocatedBytes >= 0) {
+            json.append(result.allocatedBytes);
+        } else {
+            json.append("null");
+        }
+        json.append(",\"verdict\":");
+        appendString(json, result.verdict);
+        json.append(",\"suggestedCategory\":");
+        if (result.suggestedCategory.isPresent()) {
+            appendString(json, result.suggestedCategory.get());
+        } else {
+            json.append("null");
+        }
+        json.append(",\"stacks\":[");
+        for (int i = 0; i < result.stacks.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendString(json, result.stacks.get(i));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * @return the value of a string field of a report line, null if the line has no such field or it is null
+     */
+    static String stringField(String line, String name) {
+        String key   = "\"" + name + "\":\"";
+        int    start = line.indexOf(key);
+        return start < 0 ? null : readString(line, start + key.length());
+    }
+
+    /**
+     * @return the value of a number field of a report line, -1 if the line has no such field or it is null
+     */
+    static long longField(String line, String name) {
+        String key   = "\"" + name + "\":";
+        int    start = line.indexOf(key);
+        return start < 0 || line.startsWith("null", start + key.length()) ? -1 : readLong(line, start + key.length());
+    }
+
+    private static String readString(String line, int start) {
+        StringBuilder value = new StringBuilder();
+        for (int i = start; ; i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            char escaped = line.charAt(++i);
+            switch (escaped) {
+                case 'u':
+                    value.append((char) Integer.parseInt(line.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+    }
+
+    private static long readLong(String line, int start) {
+        int end = start;
+        while (end < line.length() && Character.isDigit(line.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(line.substring(start, end));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // doesn't wait for room in the queue once the writer is gone
+            while (writerThread.isAlive() && !queue.offer(END, 10, MILLISECONDS)) {
+                // the queue is full, but the writer is still making room
+            }
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new IOException("could not write timing report " + file, failure);
+        }
+    }
+}
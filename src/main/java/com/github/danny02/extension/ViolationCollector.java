@@ -0,0 +1,92 @@
+package com.github.danny02.extension;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Collects the violations of a run instead of failing the tests, to summarize them once at the end. Tests running
+ * in parallel only append to a lock-free queue, the summary is rendered after all of them completed.
+ */
+final class ViolationCollector {
+    static final int WORST_OFFENDERS = 10;
+
+    private final ConcurrentLinkedQueue<Violation> violations = new ConcurrentLinkedQueue<>();
+
+    static final class Violation {
+        final String           testId;
+        final String           category;
+        final TimeoutBound     bounds;
+        final long             runtimeNanos;
+        final Optional<String> suggestedCategory;
+
+        Violation(String testId, String category, TimeoutBound bounds, long runtimeNanos,
+                  Optional<String> suggestedCategory) {
+            this.testId = testId;
+            this.category = category;
+            this.bounds = bounds;
+            this.runtimeNanos = runtimeNanos;
+            this.suggestedCategory = suggestedCategory;
+        }
+
+        /**
+         * @return how far the runtime is outside of the bounds, in either direction
+         */
+        long excessNanos() {
+            return runtimeNanos > bounds.upperNanos ? runtimeNanos - bounds.upperNanos : bounds.lowerNanos - runtimeNanos;
+        }
+    }
+
+    void add(Violation violation) {
+        violations.add(violation);
+    }
+
+    int size() {
+        return violations.size();
+    }
+
+    String summary() {
+        List<Violation> all = new ArrayList<>(violations);
+        all.sort(Comparator.comparingLong(Violation::excessNanos).reversed().thenComparing(v -> v.testId));
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%d tests were out of the bounds of their time limit category.%n", all.size()));
+        if (all.isEmpty()) {
+            return summary.toString();
+        }
+        summary.append(String.format("Worst offenders by their excess over the bounds:%n"));
+        for (Violation violation : all.subList(0, Math.min(WORST_OFFENDERS, all.size()))) {
+            summary.append(String.format("  %6dms  %s took %dms, categorized as '%s' %s%s%n",
+                                         NANOSECONDS.toMillis(violation.excessNanos()), violation.testId,
+                                         NANOSECONDS.toMillis(violation.runtimeNanos), violation.category,
+                                         violation.bounds, violation.suggestedCategory
+                                                 .map(suggested -> ", suggested '" + suggested + "'").orElse("")));
+        }
+
+        // the time of a too slow test is time the selection of its category didn't expect
+        Map<String, long[]> categories = new TreeMap<>();
+        long                movable    = 0;
+        for (Violation violation : all) {
+            long[] totals = categories.computeIfAbsent(violation.category, c -> new long[3]);
+            totals[0]++;
+            totals[1] += violation.excessNanos();
+            if (violation.runtimeNanos > violation.bounds.upperNanos && violation.suggestedCategory.isPresent()) {
+                totals[2] += violation.runtimeNanos;
+                movable += violation.runtimeNanos;
+            }
+        }
+        summary.append(String.format("Per category:%n"));
+        categories.forEach((category, totals) -> summary.append(String.format(
+                "  %s: %d violations, %dms outside of the bounds, %dms in tests belonging to a longer category%n",
+                category, totals[0], NANOSECONDS.toMillis(totals[1]), NANOSECONDS.toMillis(totals[2]))));
+        summary.append(String.format("Recategorizing the too slow tests would take %dms out of their categories.%n",
+                                     NANOSECONDS.toMillis(movable)));
+        return summary.toString();
+    }
+}
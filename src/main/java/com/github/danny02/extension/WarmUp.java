@@ -0,0 +1,32 @@
+package com.github.danny02.extension;
+
+import java.util.Locale;
+
+/**
+ * How runs which warmed up the JVM are validated. A run counts as warm-up if classes got loaded or
+ * methods got compiled while the test body ran.
+ */
+enum WarmUp {
+    /**
+     * Warm-up runs are validated like any other run.
+     */
+    IGNORE,
+    /**
+     * Violations of warm-up runs still fail, but mention the class loading and compilation.
+     */
+    REPORT,
+    /**
+     * The first run of a test class doesn't fail for exceeding the upper bound, if it is within the bounds without
+     * the time the JIT compiled, at most the CPU time of the test thread. It is reported with the verdict warmup.
+     */
+    DISCOUNT;
+
+    static WarmUp parse(String value, String key) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("unknown value '" + value + "' for configuration parameter '" + key + "', " +
+                                       "expected ignore, report or discount", e);
+        }
+    }
+}
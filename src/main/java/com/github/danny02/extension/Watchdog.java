@@ -0,0 +1,95 @@
+package com.github.danny02.extension;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+class Watchdog {
+    private static final Watchdog SHARED = new Watchdog();
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    Watchdog() {
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "junit-timelimit-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    static Watchdog shared() {
+        return SHARED;
+    }
+
+    Deadline arm(Thread thread, Duration timeout) {
+        Deadline deadline = new Deadline(thread);
+        deadline.future = scheduler.schedule(deadline, timeout.toNanos(), NANOSECONDS);
+        return deadline;
+    }
+
+    /**
+     * Stops the watchdog thread, armed deadlines don't fire anymore.
+     */
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Samples the stack of the thread on the watchdog thread, once it ran longer than the delay.
+     */
+    StackProfile profile(Thread thread, Duration delay, Duration interval) {
+        return StackProfile.start(thread, scheduler, delay.toNanos(), interval.toNanos());
+    }
+
+    static final class Deadline implements Runnable {
+        private static final int ARMED    = 0;
+        private static final int FIRING   = 1;
+        private static final int FIRED    = 2;
+        private static final int DISARMED = 3;
+
+        private final AtomicInteger       state = new AtomicInteger(ARMED);
+        private final Thread              thread;
+        private       ScheduledFuture<?>  future;
+        private       StackTraceElement[] stackAtTimeout;
+
+        private Deadline(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public void run() {
+            if (state.compareAndSet(ARMED, FIRING)) {
+                stackAtTimeout = thread.getStackTrace();
+                thread.interrupt();
+                state.set(FIRED);
+            }
+        }
+
+        /**
+         * @return true if the deadline expired before it could be disarmed
+         */
+        boolean disarm() {
+            if (state.compareAndSet(ARMED, DISARMED)) {
+                future.cancel(false);
+                return false;
+            }
+            while (state.get() != FIRED) {
+                Thread.onSpinWait();
+            }
+            if (thread == Thread.currentThread()) {
+                Thread.interrupted();
+            }
+            return true;
+        }
+
+        Throwable stackDump() {
+            Throwable dump = new Throwable("stack of '" + thread.getName() + "' when the time limit was exceeded");
+            dump.setStackTrace(stackAtTimeout);
+            return dump;
+        }
+    }
+}
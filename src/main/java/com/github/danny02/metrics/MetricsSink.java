@@ -0,0 +1,25 @@
+package com.github.danny02.metrics;
+
+import java.util.Map;
+
+/**
+ * Receives the measured runtimes of a test run. Implementations are loaded with the
+ * {@link java.util.ServiceLoader} and are only fed if at least one is present.
+ */
+public interface MetricsSink {
+
+    /**
+     * Called for every measured test, concurrently when tests run in parallel.
+     *
+     * @param verdict one of {@code ok}, {@code tolerated}, {@code warmup}, {@code violation}, {@code allocation},
+     *                {@code regression} or {@code interrupted}, like the verdicts of the timing report
+     */
+    default void testTimed(String testId, String category, long runtimeNanos, String verdict) {
+    }
+
+    /**
+     * Called once at the end of the run with the distribution of the runtimes of each category.
+     */
+    default void runFinished(Map<String, RuntimeHistogram> histograms) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.danny02.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of runtimes with a bucket for each power of two of nanoseconds, which
+ * is coarse, but covers everything from a nanosecond to centuries in 64 counters.
+ */
+public final class RuntimeHistogram {
+    public static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder       sum    = new LongAdder();
+
+    public void record(long runtimeNanos) {
+        counts.incrementAndGet(bucket(runtimeNanos));
+        sum.add(runtimeNanos);
+    }
+
+    /**
+     * @return the bucket of a runtime, bucket {@code i} holds runtimes up to {@code 2^i - 1} nanoseconds
+     */
+    public static int bucket(long runtimeNanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, runtimeNanos)));
+    }
+
+    public static long bucketUpperNanos(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    public long bucketCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long sumNanos() {
+        return sum.sum();
+    }
+
+    /**
+     * @return the upper end of the bucket which holds the given quantile of the runtimes
+     */
+    public long percentile(double quantile) {
+        long count = count();
+        if (count == 0) {
+            throw new IllegalStateException("no runtimes recorded");
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        for (int i = 0; i < BUCKETS; i++) {
+            rank -= counts.get(i);
+            if (rank <= 0) {
+                return bucketUpperNanos(i);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
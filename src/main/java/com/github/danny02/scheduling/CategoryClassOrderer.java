@@ -0,0 +1,27 @@
+package com.github.danny02.scheduling;
+
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Orders test classes by the summed up expected runtime of their test methods, shortest first unless
+ * {@code com.github.danny02.timelimit.order=longest-first} is configured.
+ */
+public class CategoryClassOrderer implements ClassOrderer {
+
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        ExpectedRuntimes           runtimes = ExpectedRuntimes.fromParameters(context::getConfigurationParameter);
+        Map<ClassDescriptor, Long> expected = new IdentityHashMap<>();
+        for (ClassDescriptor descriptor : context.getClassDescriptors()) {
+            expected.put(descriptor, runtimes.expectedNanos(descriptor.getTestClass()));
+        }
+
+        RuntimeOrder order = RuntimeOrder.fromParameters(context::getConfigurationParameter);
+        context.getClassDescriptors().sort(order.comparing(expected::get));
+    }
+}
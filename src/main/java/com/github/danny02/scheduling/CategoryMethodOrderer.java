@@ -0,0 +1,27 @@
+package com.github.danny02.scheduling;
+
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Orders test methods by the expected runtime of their category, shortest first unless
+ * {@code com.github.danny02.timelimit.order=longest-first} is configured.
+ */
+public class CategoryMethodOrderer implements MethodOrderer {
+
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        ExpectedRuntimes            runtimes = ExpectedRuntimes.fromParameters(context::getConfigurationParameter);
+        Map<MethodDescriptor, Long> expected = new IdentityHashMap<>();
+        for (MethodDescriptor descriptor : context.getMethodDescriptors()) {
+            expected.put(descriptor, runtimes.expectedNanos(descriptor.getMethod()));
+        }
+
+        RuntimeOrder order = RuntimeOrder.fromParameters(context::getConfigurationParameter);
+        context.getMethodDescriptors().sort(order.comparing(expected::get));
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.danny02.scheduling;
+
+import com.github.danny02.extension.CategoryResolver;
+import com.github.danny02.extension.ConfiguredTimeLimits;
+import com.github.danny02.extension.RuntimeHistory;
+import com.github.danny02.extension.TimeoutBound;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.platform.commons.annotation.Testable;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+import static org.junit.platform.commons.support.AnnotationSupport.findAnnotatedMethods;
+import static org.junit.platform.commons.support.AnnotationSupport.findAnnotation;
+import static org.junit.platform.commons.support.AnnotationSupport.isAnnotated;
+import static org.junit.platform.commons.support.HierarchyTraversalMode.TOP_DOWN;
+
+/**
+ * Estimates how long tests take, based on their category and recorded runtimes if available.
+ * A test identified by its unique id is expected to take the {@link #pessimisticNanos pessimistic} estimate if
+ * neither is known. The estimates of methods and classes alone only rank them, they count uncategorized tests
+ * as taking no time.
+ */
+public class ExpectedRuntimes {
+    private static final String INVOCATION_SEGMENT = "/[test-template-invocation:";
+
+    private final ConfiguredTimeLimits     timeLimits;
+    private final Optional<RuntimeHistory> history;
+    // the summed medians of the recorded invocations of every test template, like a parameterized test
+    private final Map<String, Long>        templates = new HashMap<>();
+
+    ExpectedRuntimes(ConfiguredTimeLimits timeLimits, Optional<RuntimeHistory> history) {
+        this.timeLimits = timeLimits;
+        this.history = history;
+        history.ifPresent(h -> h.allSamples().forEach((uniqueId, samples) -> {
+            int invocation = uniqueId.lastIndexOf(INVOCATION_SEGMENT);
+            if (invocation > 0) {
+                templates.merge(uniqueId.substring(0, invocation), samples.percentile(0.5), Long::sum);
+            }
+        }));
+    }
+
+    public static ExpectedRuntimes fromParameters(Function<String, Optional<String>> parameters) {
+        return new ExpectedRuntimes(ConfiguredTimeLimits.fromParameters(parameters), Optional.empty());
+    }
+
+    /**
+     * @param historyDirectory the runtime history recorded with {@code com.github.danny02.timelimit.history.dir}
+     */
+    public static ExpectedRuntimes fromParameters(Function<String, Optional<String>> parameters,
+                                                  Path historyDirectory) {
+        return new ExpectedRuntimes(ConfiguredTimeLimits.fromParameters(parameters),
+                                    Optional.of(RuntimeHistory.open(historyDirectory)));
+    }
+
+    public long expectedNanos(Method testMethod) {
+        return CategoryResolver.categoryOf(testMethod).map(this::expectedNanos).orElse(0L);
+    }
+
+    /**
+     * Prefers the median of the recorded runtimes of the test over the estimate of its category.
+     * A test of unknown runtime is expected to take the {@link #pessimisticNanos pessimistic} estimate.
+     */
+    public long expectedNanos(String uniqueId, Method testMethod) {
+        return knownNanos(uniqueId, testMethod).orElseGet(this::pessimisticNanos);
+    }
+
+    /**
+     * A test template, like a parameterized test, is estimated with the recorded runtimes of all its invocations.
+     * Without them, only a repeated test has a known number of invocations.
+     *
+     * @return the expected runtime of the test, empty if neither its category nor its recorded runtime are known
+     */
+    public OptionalLong knownNanos(String uniqueId, Method testMethod) {
+        Optional<Long> recorded = history.flatMap(h -> h.samples(uniqueId)).map(samples -> samples.percentile(0.5));
+        if (recorded.isPresent()) {
+            return OptionalLong.of(recorded.get());
+        }
+        Long invocations = templates.get(uniqueId);
+        if (invocations != null) {
+            return OptionalLong.of(invocations);
+        }
+        Optional<Long> category = CategoryResolver.categoryOf(testMethod)
+                                                  .flatMap(timeLimits::findBounds)
+                                                  .map(TimeoutBound::expectedNanos);
+        if (!category.isPresent()) {
+            return OptionalLong.empty();
+        }
+        if (isAnnotated(testMethod, RepeatedTest.class)) {
+            return OptionalLong.of(category.get() * findAnnotation(testMethod, RepeatedTest.class).get().value());
+        }
+        return isAnnotated(testMethod, TestTemplate.class) ? OptionalLong.empty() : OptionalLong.of(category.get());
+    }
+
+    /**
+     * @return the estimate for a test of unknown runtime, the longest bound of the default categories
+     */
+    public long pessimisticNanos() {
+        return timeLimits.longestBoundedNanos();
+    }
+
+    public long expectedNanos(Class<?> testClass) {
+        long total = 0;
+        for (Method testMethod : findAnnotatedMethods(testClass, Testable.class, TOP_DOWN)) {
+            total += expectedNanos(testMethod);
+        }
+        return total;
+    }
+
+    private long expectedNanos(String category) {
+        // unknown categories are reported by the extension, they are just not taken into account here
+        return timeLimits.findBounds(category).map(TimeoutBound::expectedNanos).orElse(0L);
+    }
+}
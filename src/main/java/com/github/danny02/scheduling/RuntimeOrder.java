@@ -0,0 +1,39 @@
+package com.github.danny02.scheduling;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static java.util.Comparator.comparingLong;
+
+enum RuntimeOrder {
+    /**
+     * Fast feedback, the most tests are finished as early as possible.
+     */
+    SHORTEST_FIRST,
+    /**
+     * Better makespan, long running tests don't end up as stragglers when executing in parallel.
+     */
+    LONGEST_FIRST;
+
+    static final String ORDER_PARAMETER = "com.github.danny02.timelimit.order";
+
+    static RuntimeOrder fromParameters(Function<String, Optional<String>> parameters) {
+        String order = parameters.apply(ORDER_PARAMETER).orElse("shortest-first").trim();
+        switch (order) {
+            case "shortest-first":
+                return SHORTEST_FIRST;
+            case "longest-first":
+                return LONGEST_FIRST;
+            default:
+                throw new RuntimeException("unknown value '" + order + "' for configuration parameter '" +
+                                           ORDER_PARAMETER + "', expected shortest-first or longest-first");
+        }
+    }
+
+    <T> Comparator<T> comparing(ToLongFunction<T> expectedNanos) {
+        Comparator<T> shortestFirst = comparingLong(expectedNanos);
+        return this == SHORTEST_FIRST ? shortestFirst : shortestFirst.reversed();
+    }
+}
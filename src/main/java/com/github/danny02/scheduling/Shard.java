@@ -0,0 +1,37 @@
+package com.github.danny02.scheduling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Shard {
+    private final int          index;
+    private final List<String> classNames = new ArrayList<>();
+    private       long         expectedNanos;
+
+    Shard(int index) {
+        this.index = index;
+    }
+
+    void add(String className, long classNanos) {
+        classNames.add(className);
+        expectedNanos += classNanos;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public List<String> getClassNames() {
+        return Collections.unmodifiableList(classNames);
+    }
+
+    public long getExpectedNanos() {
+        return expectedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("shard %d (%dms): %s", index, expectedNanos / 1_000_000, classNames);
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.danny02.scheduling;
+
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static java.util.Comparator.comparingInt;
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Splits a discovered test plan into shards of test classes with about the same expected runtime,
+ * so that parallel forks or CI jobs finish at the same time.
+ */
+public class TestPlanSharding {
+
+    private TestPlanSharding() {
+    }
+
+    public static List<Shard> partition(TestPlan plan, int shardCount, ExpectedRuntimes runtimes) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("at least one shard is needed, but got " + shardCount);
+        }
+
+        Map<String, Long> classRuntimes = new LinkedHashMap<>();
+        for (TestIdentifier root : plan.getRoots()) {
+            for (TestIdentifier test : plan.getDescendants(root)) {
+                test.getSource()
+                    .filter(MethodSource.class::isInstance)
+                    .map(MethodSource.class::cast)
+                    .ifPresent(source -> classRuntimes.merge(
+                            independentClass(source.getJavaClass()).getName(),
+                            runtimes.expectedNanos(test.getUniqueId(), source.getJavaMethod()),
+                            Long::sum));
+            }
+        }
+
+        List<Map.Entry<String, Long>> longestFirst = new ArrayList<>(classRuntimes.entrySet());
+        longestFirst.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        List<Shard>          shards    = new ArrayList<>();
+        PriorityQueue<Shard> leastBusy = new PriorityQueue<>(
+                comparingLong(Shard::getExpectedNanos).thenComparing(comparingInt(Shard::getIndex)));
+        for (int i = 0; i < shardCount; i++) {
+            Shard shard = new Shard(i);
+            shards.add(shard);
+            leastBusy.add(shard);
+        }
+        for (Map.Entry<String, Long> testClass : longestFirst) {
+            Shard shard = leastBusy.poll();
+            shard.add(testClass.getKey(), testClass.getValue());
+            leastBusy.add(shard);
+        }
+        return shards;
+    }
+
+    /**
+     * Inner classes, like {@code @Nested} tests, can only run together with their enclosing class.
+     */
+    private static Class<?> independentClass(Class<?> testClass) {
+        while (testClass.isMemberClass() && !Modifier.isStatic(testClass.getModifiers())) {
+            testClass = testClass.getEnclosingClass();
+        }
+        return testClass;
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.danny02.scheduling;
+
+import com.github.danny02.extension.ConfiguredTimeLimits;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Selects as many tests as fit into a time budget, shortest first, e.g. for a pre-commit stage with a
+ * predictable latency. The runtimes are estimated from the categories or the recorded history of the tests,
+ * a test of unknown runtime is expected to take as long as the longest bounded category allows.
+ * <p>
+ * To be registered automatically, list it in {@code META-INF/services/org.junit.platform.launcher.PostDiscoveryFilter}.
+ * It is then configured with system properties and selects all tests as long as no budget is set.
+ */
+public class TimeBudgetFilter implements PostDiscoveryFilter {
+    public static final String BUDGET_PARAMETER  = "com.github.danny02.timelimit.select.budget";
+    public static final String HISTORY_PARAMETER = "com.github.danny02.timelimit.history.dir";
+
+    private final long                         budgetNanos;
+    private final ExpectedRuntimes             runtimes;
+    private final Map<UniqueId, Set<UniqueId>> selections = new ConcurrentHashMap<>();
+
+    public TimeBudgetFilter() {
+        this(key -> Optional.ofNullable(System.getProperty(key)));
+    }
+
+    public TimeBudgetFilter(Duration budget, ExpectedRuntimes runtimes) {
+        this.budgetNanos = budget.toNanos();
+        this.runtimes = runtimes;
+    }
+
+    private TimeBudgetFilter(Function<String, Optional<String>> parameters) {
+        this.runtimes = parameters.apply(HISTORY_PARAMETER)
+                                  .map(dir -> ExpectedRuntimes.fromParameters(parameters, Paths.get(dir)))
+                                  .orElseGet(() -> ExpectedRuntimes.fromParameters(parameters));
+        this.budgetNanos = ConfiguredTimeLimits.parseMillis(parameters, BUDGET_PARAMETER)
+                                               .map(Duration::toNanos)
+                                               .orElse(Long.MAX_VALUE);
+    }
+
+    public static TimeBudgetFilter fromParameters(Function<String, Optional<String>> parameters) {
+        return new TimeBudgetFilter(parameters);
+    }
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (!isTestMethod(descriptor)) {
+            return FilterResult.included("not a test method");
+        }
+        TestDescriptor root = descriptor;
+        while (root.getParent().isPresent()) {
+            root = root.getParent().get();
+        }
+        TestDescriptor engine   = root;
+        Set<UniqueId>  selected = selections.computeIfAbsent(root.getUniqueId(), id -> select(engine));
+        if (selected.contains(descriptor.getUniqueId())) {
+            return FilterResult.included("fits into the time budget");
+        }
+        return FilterResult.excluded("does not fit into the time budget of " +
+                                     Duration.ofNanos(budgetNanos).toMillis() + "ms");
+    }
+
+    private Set<UniqueId> select(TestDescriptor root) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (TestDescriptor descriptor : root.getDescendants()) {
+            if (isTestMethod(descriptor)) {
+                MethodSource source = (MethodSource) descriptor.getSource().get();
+                // a test of unknown runtime must not slip into the budget for free
+                long expectedNanos = runtimes.expectedNanos(descriptor.getUniqueId().toString(), source.getJavaMethod());
+                candidates.add(new Candidate(descriptor.getUniqueId(), expectedNanos));
+            }
+        }
+        candidates.sort(comparingLong((Candidate c) -> c.expectedNanos).thenComparing(c -> c.id.toString()));
+
+        Set<UniqueId> selected = new HashSet<>();
+        long          spent    = 0;
+        for (Candidate candidate : candidates) {
+            if (candidate.expectedNanos > budgetNanos - spent) {
+                break;
+            }
+            spent += candidate.expectedNanos;
+            selected.add(candidate.id);
+        }
+        return selected;
+    }
+
+    /**
+     * Test methods and test templates, like parameterized tests, have no children after the discovery.
+     */
+    private static boolean isTestMethod(TestDescriptor descriptor) {
+        return descriptor.getChildren().isEmpty()
+               && descriptor.getSource().filter(MethodSource.class::isInstance).isPresent();
+    }
+
+    private static final class Candidate {
+        final UniqueId id;
+        final long     expectedNanos;
+
+        Candidate(UniqueId id, long expectedNanos) {
+            this.id = id;
+            this.expectedNanos = expectedNanos;
+        }
+    }
+}
@@ -1,11 +1,21 @@
 import com.github.danny02.extension.TimeLimitExtension;
+import com.github.danny02.metrics.MetricsSink;
 import org.junit.jupiter.api.extension.Extension;
 
 module junit.timelimit {
+    requires java.management;
+    requires jdk.jfr;
+    requires jdk.management;
     requires org.junit.jupiter.api;
     requires org.junit.platform.commons;
+    requires static org.junit.platform.engine;
+    requires static org.junit.platform.launcher;
 
     exports com.github.danny02.annotation;
+    exports com.github.danny02.metrics;
+    exports com.github.danny02.scheduling;
+
+    uses MetricsSink;
 
     provides Extension with TimeLimitExtension;
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.danny02.extension.TimeoutBound.fromMs;
+import static java.util.Optional.empty;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BaselineTest {
+
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("baseline", ".jsonl");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.delete(file);
+    }
+
+    private static String line(String testId, long runtimeNanos) {
+        return TimingReport.toJson(new TimingReport.Result(testId, "short", fromMs(0, 100), runtimeNanos, 0, -1,
+                                                           "ok", empty(), List.of()));
+    }
+
+    @Test
+    void shouldReadRuntimesOfTimingReport() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            lines.add(line("[engine:junit-jupiter]/[method:\"test-" + i + "\"]", i));
+        }
+        lines.add(line("[engine:junit-jupiter]/[method:\"test-7\"]", 4242));
+        Files.write(file, lines);
+
+        Baseline baseline = Baseline.read(file, 0.2, 0);
+
+        assertEquals(1000, baseline.size());
+        assertEquals(999, baseline.runtimeNanos("[engine:junit-jupiter]/[method:\"test-999\"]"));
+        assertEquals(4242, baseline.runtimeNanos("[engine:junit-jupiter]/[method:\"test-7\"]"));
+        assertEquals(Baseline.MISSING, baseline.runtimeNanos("[engine:junit-jupiter]/[method:\"test-1000\"]"));
+    }
+
+    @Test
+    void shouldTolerateRelativeAndAbsoluteDifference() throws IOException {
+        Baseline baseline = Baseline.read(file, 0.2, MILLISECONDS.toNanos(5));
+        long     previous = MILLISECONDS.toNanos(100);
+
+        assertFalse(baseline.isRegression(MILLISECONDS.toNanos(125), previous));
+        assertTrue(baseline.isRegression(MILLISECONDS.toNanos(126), previous));
+        assertFalse(baseline.isImprovement(MILLISECONDS.toNanos(75), previous));
+        assertTrue(baseline.isImprovement(MILLISECONDS.toNanos(74), previous));
+    }
+
+    @Test
+    void shouldRejectMalformedBaseline() throws IOException {
+        Files.write(file, List.of("{\"id\":\"test\",\"runtimeNanos\":fast}"));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> Baseline.read(file, 0.2, 0));
+        assertTrue(e.getMessage().contains("malformed baseline"), e.getMessage());
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.time.Duration.ofMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CalibrationTest {
+
+    @Test
+    void shouldStretchLimitsOnSlowerMachine() {
+        Calibration calibration = new Calibration(steppingTicker(MILLISECONDS.toNanos(6)));
+
+        assertEquals(2.0, calibration.measureSpeedFactor(ofMillis(3)));
+    }
+
+    @Test
+    void shouldNeverTightenLimits() {
+        Calibration calibration = new Calibration(steppingTicker(MILLISECONDS.toNanos(1)));
+
+        assertEquals(1.0, calibration.measureSpeedFactor(ofMillis(3)));
+    }
+
+    private static Ticker steppingTicker(long step) {
+        AtomicLong time = new AtomicLong();
+        return () -> time.getAndAdd(step);
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CategoryTuningTest {
+
+    @Test
+    void shouldSeparateGroupsOfRuntimes() {
+        Random random   = new Random(42);
+        long[] runtimes = new long[300];
+        for (int i = 0; i < runtimes.length; i++) {
+            long base = i % 3 == 0 ? 2 : i % 3 == 1 ? 60 : 1500;
+            runtimes[i] = MILLISECONDS.toNanos(base) + random.nextInt((int) MILLISECONDS.toNanos(base / 2));
+        }
+
+        CategoryTuning tuning = CategoryTuning.propose(runtimes, 3, 0.25);
+
+        assertArrayEquals(new int[]{100, 100, 100}, tuning.tests);
+        for (int i = 0; i < runtimes.length; i++) {
+            assertEquals(i % 3, tuning.assignments[i]);
+        }
+        assertEquals(0, tuning.lowerNanos[0]);
+        assertEquals(Long.MAX_VALUE, tuning.upperNanos[2]);
+        assertTrue(tuning.lowerNanos[1] > MILLISECONDS.toNanos(3) && tuning.upperNanos[0] < MILLISECONDS.toNanos(60));
+        assertTrue(tuning.lowerNanos[2] > MILLISECONDS.toNanos(90) && tuning.upperNanos[1] < MILLISECONDS.toNanos(1500));
+    }
+
+    @Test
+    void shouldOverlapNeighbouringCategories() {
+        long[] runtimes = {MILLISECONDS.toNanos(10), MILLISECONDS.toNanos(1000)};
+
+        CategoryTuning tuning = CategoryTuning.propose(runtimes, 2, 0.25);
+
+        // the boundary is the geometric middle of 10ms and 1s
+        assertEquals(MILLISECONDS.toNanos(125), tuning.upperNanos[0], MILLISECONDS.toNanos(2));
+        assertEquals(MILLISECONDS.toNanos(80), tuning.lowerNanos[1], MILLISECONDS.toNanos(2));
+    }
+
+    @Test
+    void shouldProposeFewerCategoriesThanDistinctRuntimes() {
+        long[] runtimes = {MILLISECONDS.toNanos(5), MILLISECONDS.toNanos(5)};
+
+        CategoryTuning tuning = CategoryTuning.propose(runtimes, 4, 0.25);
+
+        assertArrayEquals(new int[]{2}, tuning.tests);
+        assertEquals(Long.MAX_VALUE, tuning.upperNanos[0]);
+    }
+}
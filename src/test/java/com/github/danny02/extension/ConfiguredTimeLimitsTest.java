@@ -3,14 +3,19 @@ package com.github.danny02.extension;
 import com.github.danny02.extension.ConfiguredTimeLimits;
 import org.junit.jupiter.api.Test;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.github.danny02.extension.TimeoutBound.fromMs;
 import static java.time.Duration.ofMillis;
 import static java.time.Duration.ofSeconds;
 import static java.util.Optional.empty;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -146,6 +151,16 @@ class ConfiguredTimeLimitsTest {
         assertTrue(error.contains(fromMs(0, 50).toString()), error);
     }
 
+    @Test
+    void shouldValidateNanoseconds() {
+        ConfiguredTimeLimits conf = new ConfiguredTimeLimits(
+                s -> empty(), s -> empty(),
+                Map.of("small", fromMs(0, 50)));
+
+        assertEquals(empty(), conf.validateRuntime(ofMillis(25).toNanos(), "small"));
+        assertTrue(conf.validateRuntime(ofSeconds(1).toNanos(), "small").get().contains("1000ms"));
+    }
+
     @Test
     void shouldPrintIdealCategoryOnError() {
         ConfiguredTimeLimits conf = new ConfiguredTimeLimits(
@@ -157,4 +172,151 @@ class ConfiguredTimeLimitsTest {
         assertTrue(error.contains("big"), error);
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldResolveBoundsOnlyOnce() {
+        AtomicInteger lookups = new AtomicInteger();
+        ConfiguredTimeLimits conf = new ConfiguredTimeLimits(
+                s -> {
+                    lookups.incrementAndGet();
+                    return empty();
+                },
+                s -> empty(),
+                Map.of("small", fromMs(0, 100)));
+
+        conf.lookUpBounds("small");
+        conf.lookUpBounds("small");
+
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void shouldResolveDefaultCategoriesEagerly() {
+        ConfiguredTimeLimits conf = new ConfiguredTimeLimits(
+                s -> {
+                    throw new RuntimeException("malformed");
+                },
+                s -> empty(),
+                Map.of("small", fromMs(0, 100)));
+
+        assertThrows(RuntimeException.class, conf::resolveDefaultCategories);
+    }
+
+    @Test
+    void shouldSuggestCategoryFromHistory() {
+        ConfiguredTimeLimits conf = new ConfiguredTimeLimits(
+                s -> empty(), s -> empty(),
+                Map.of("small", fromMs(0, 500),
+                       "big", fromMs(500, 2000)));
+        RuntimeSamples history = new RuntimeSamples(10);
+        for (int i = 0; i < 5; i++) {
+            history.add(ofMillis(100).toNanos());
+        }
+
+        String error = conf.validateRuntime(ofSeconds(1), "small", Optional.of(history)).get();
+        assertTrue(error.contains("p95"), error);
+        assertTrue(error.contains("'small'"), error);
+        assertFalse(error.contains("big"), error);
+    }
+
+    @Test
+    void shouldScaleBoundsBySpeedFactor() {
+        ConfiguredTimeLimits conf = new ConfiguredTimeLimits(
+                s -> empty(),
+                s -> Optional.of(ofMillis(200)),
+                Map.of("small", fromMs(0, 100)),
+                1.5, RuntimeValidation.strict());
+
+        assertEquals(fromMs(0, 300), conf.lookUpBounds("small"));
+        assertEquals(Optional.of("small"), conf.smallestDefaultCategoryForDuration(ofMillis(140)));
+    }
+
+    @Test
+    void shouldNotReportToleratedViolation() {
+        ConfiguredTimeLimits conf = new ConfiguredTimeLimits(
+                s -> empty(), s -> empty(),
+                Map.of("small", fromMs(0, 100)),
+                1, (bounds, runtime, history) -> false);
+
+        assertEquals(empty(), conf.validateRuntime(ofSeconds(1), "small"));
+    }
+
+    @Test
+    void shouldOnlyBoundConfiguredPhases() {
+        ConfiguredTimeLimits conf = ConfiguredTimeLimits.fromParameters(key -> Optional.ofNullable(Map.of(
+                "com.github.danny02.timeout.short.before-each.upper", "20").get(key)));
+
+        assertEquals(Optional.of(fromMs(0, 100)), conf.lookUpBounds("short", Phase.BODY));
+        assertEquals(Optional.of(fromMs(0, 20)), conf.lookUpBounds("short", Phase.BEFORE_EACH));
+        assertEquals(empty(), conf.lookUpBounds("short", Phase.AFTER_EACH));
+        assertEquals(empty(), conf.lookUpBounds("short", Phase.BEFORE_ALL));
+    }
+
+    @Test
+    void shouldReportPhaseOutOfBounds() {
+        ConfiguredTimeLimits conf = ConfiguredTimeLimits.fromParameters(key -> Optional.ofNullable(Map.of(
+                "com.github.danny02.timeout.short.after-all.upper", "20").get(key)));
+
+        assertEquals(empty(), conf.validatePhase(ofMillis(10).toNanos(), "short", Phase.AFTER_ALL));
+        assertEquals(empty(), conf.validatePhase(ofMillis(50).toNanos(), "short", Phase.BEFORE_ALL));
+        String error = conf.validatePhase(ofMillis(50).toNanos(), "short", Phase.AFTER_ALL).get();
+        assertTrue(error.contains("after-all"), error);
+    }
+
+    @Test
+    void shouldValidateAgainstScaledBounds() {
+        ConfiguredTimeLimits conf = ConfiguredTimeLimits.fromParameters(key -> empty());
+
+        assertEquals(empty(), conf.validateRuntime(ofMillis(250).toNanos(), "short", 3, empty()));
+        String error = conf.validateRuntime(ofMillis(600).toNanos(), "short", 3, empty()).get();
+        assertTrue(error.contains("[PT0S, PT0.3S]"), error);
+        // without the scale, 600ms would be long
+        assertTrue(error.contains("categorize it as 'medium'"), error);
+    }
+
+    @Test
+    void shouldValidateBatchOfRuns() {
+        ConfiguredTimeLimits conf = ConfiguredTimeLimits.fromParameters(key -> empty());
+
+        BatchVerdicts verdicts = conf.validateAll(new long[]{ofMillis(50).toNanos(), ofMillis(120).toNanos(),
+                                                             ofMillis(700).toNanos()},
+                                                  new int[]{0, 0, 1}, "short", "medium");
+
+        assertEquals(3, verdicts.size());
+        assertEquals(2, verdicts.violations());
+        assertTrue(verdicts.isInBound(0));
+        assertFalse(verdicts.isInBound(1));
+        assertEquals(Optional.of("short"), verdicts.suggestedCategory(0));
+        assertEquals(Optional.of("medium"), verdicts.suggestedCategory(1));
+        assertEquals(Optional.of("long"), verdicts.suggestedCategory(2));
+    }
+
+    @Test
+    void shouldSuggestLikeAScanOverAllDefaults() {
+        Random                    random   = new Random(42);
+        Map<String, TimeoutBound> defaults = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            long lower = random.nextInt(1000);
+            defaults.put("category" + i, fromMs(lower, lower + random.nextInt(300)));
+        }
+        ConfiguredTimeLimits conf = new ConfiguredTimeLimits(s -> empty(), s -> empty(), defaults);
+
+        for (long ms = 0; ms < 1400; ms++) {
+            long runtime = ms;
+            Optional<String> scanned = defaults.entrySet()
+                                               .stream()
+                                               .filter(e -> e.getValue().isInBound(ofMillis(runtime)))
+                                               .min(Comparator.comparingLong((Map.Entry<String, TimeoutBound> e) ->
+                                                                                     e.getValue().lowerNanos)
+                                                              .thenComparing(Map.Entry::getKey))
+                                               .map(Map.Entry::getKey);
+            assertEquals(scanned, conf.smallestDefaultCategoryForDuration(ofMillis(runtime)), "at " + runtime + "ms");
+        }
+    }
+
+    @Test
+    void shouldRejectBatchWithMismatchingArrays() {
+        ConfiguredTimeLimits conf = ConfiguredTimeLimits.fromParameters(key -> empty());
+
+        assertThrows(IllegalArgumentException.class, () -> conf.validateAll(new long[2], new int[1], "short"));
+    }
+}
@@ -3,16 +3,40 @@ package com.github.danny02.extension;
 import com.github.danny02.annotation.Medium;
 import com.github.danny02.annotation.Short;
 import com.github.danny02.annotation.TimeLimit;
+import com.github.danny02.annotation.TotalTimeLimit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.reporting.ReportEntry;
 import org.junit.platform.launcher.Launcher;
 import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
 import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
 import org.junit.platform.launcher.core.LauncherFactory;
 import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+import static java.time.Duration.ofSeconds;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
 
 public class ExtensionIntegrationTest {
@@ -101,4 +125,764 @@ public class ExtensionIntegrationTest {
 
         assertEquals(2, listener.getSummary().getTestsFailedCount());
     }
+
+    static class HangingTest {
+
+        @Test
+        @Short
+        void hangingTest() throws InterruptedException {
+            Thread.sleep(10_000);
+        }
+    }
+
+    @Test
+    void shouldInterruptHangingTestWhenEnforcing() {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(HangingTest.class)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true",
+                        "com.github.danny02.timelimit.enforce", "true"
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener);
+
+        assertTimeout(ofSeconds(5), () -> launcher.execute(request));
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+    }
+
+    @Test
+    void shouldFailContainerOnMalformedConfiguration() {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(DifferentCategories.class)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true",
+                        "com.github.danny02.timeout.short.upper", "100ms"
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener);
+
+        launcher.execute(request);
+
+        assertTrue(listener.getSummary().getContainersFailedCount() > 0);
+        assertEquals(0, listener.getSummary().getTestsStartedCount());
+    }
+
+    static class BudgetedTemplate {
+
+        @Short
+        @TotalTimeLimit("budget")
+        @RepeatedTest(10)
+        void repeatedTest() throws InterruptedException {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void shouldFailOnlyTheInvocationExceedingTheBudget() {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(BudgetedTemplate.class)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true",
+                        "com.github.danny02.timeout.budget.lower", "0",
+                        "com.github.danny02.timeout.budget.upper", "100"
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener);
+
+        launcher.execute(request);
+
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+        assertEquals(9, listener.getSummary().getTestsSucceededCount());
+    }
+
+    @TotalTimeLimit("short")
+    static class BudgetedClass {
+
+        @Test
+        void firstTest() throws InterruptedException {
+            Thread.sleep(60);
+        }
+
+        @Test
+        void secondTest() throws InterruptedException {
+            Thread.sleep(60);
+        }
+    }
+
+    @Test
+    void shouldFailClassExceedingItsBudget() {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(BudgetedClass.class)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true"
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener);
+
+        launcher.execute(request);
+
+        assertEquals(2, listener.getSummary().getTestsSucceededCount());
+        assertEquals(1, listener.getSummary().getContainersFailedCount());
+    }
+
+    @Short
+    static class SlowFixture {
+
+        @BeforeEach
+        void setUp() throws InterruptedException {
+            Thread.sleep(50);
+        }
+
+        @Test
+        void fastTest() {
+        }
+    }
+
+    @Test
+    void shouldBoundFixturePhasesSeparately() {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(SlowFixture.class)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true",
+                        "com.github.danny02.timeout.short.before-each.upper", "10",
+                        "com.github.danny02.timelimit.report.phases", "true"
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        List<ReportEntry>         entries  = new ArrayList<>();
+        launcher.registerTestExecutionListeners(listener, new TestExecutionListener() {
+            @Override
+            public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
+                entries.add(entry);
+            }
+        });
+
+        launcher.execute(request);
+
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+        assertEquals(1, entries.size());
+        long beforeEach = Long.parseLong(entries.get(0).getKeyValuePairs().get("timelimit.before-each"));
+        assertTrue(beforeEach >= 50, "before-each took " + beforeEach + "ms");
+    }
+
+    @Test
+    void shouldWriteTimingReport() throws IOException {
+        Path report = Files.createTempFile("timing-report", ".jsonl");
+        try {
+            LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                    .request()
+                    .selectors(
+                            selectClass(WrongCategories.class)
+                              )
+                    .filters()
+                    .configurationParameters(Map.of(
+                            "junit.jupiter.extensions.autodetection.enabled", "true",
+                            "com.github.danny02.timeout.not-existing.lower", "0",
+                            "com.github.danny02.timeout.not-existing.upper", "10",
+                            "com.github.danny02.timelimit.report.file", report.toString()
+                                                   ))
+                    .build();
+
+            LauncherFactory.create().execute(request);
+
+            List<String> lines = Files.readAllLines(report);
+            assertEquals(2, lines.size());
+            assertTrue(lines.stream().anyMatch(line -> line.contains("\"verdict\":\"violation\"") &&
+                                                       line.contains("\"suggestedCategory\":\"medium\"")), lines::toString);
+            assertTrue(lines.stream().anyMatch(line -> line.contains("\"verdict\":\"ok\"")), lines::toString);
+        } finally {
+            Files.delete(report);
+        }
+    }
+
+    static class SlowBusyTest {
+
+        @Test
+        @Short
+        void busyTest() {
+            long end = System.nanoTime() + 200_000_000;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Test
+    void shouldAttachSampledStacksToViolation() {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(SlowBusyTest.class)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true",
+                        "com.github.danny02.timelimit.sampling.threshold", "0.5",
+                        "com.github.danny02.timelimit.sampling.interval", "5"
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener);
+
+        launcher.execute(request);
+
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+        String message = listener.getSummary().getFailures().get(0).getException().getMessage();
+        assertTrue(message.contains("Stacks sampled every 5ms after 50ms"), message);
+        assertTrue(message.contains("SlowBusyTest.busyTest"), message);
+    }
+
+    static class ColdTest {
+
+        // discovery already loads nested classes, but a proxy class is only defined on first use
+        interface LoadedByTheTest {
+        }
+
+        @Test
+        @Short
+        void coldTest() throws InterruptedException {
+            Proxy.newProxyInstance(LoadedByTheTest.class.getClassLoader(), new Class<?>[]{LoadedByTheTest.class},
+                                   (proxy, method, args) -> null);
+            Thread.sleep(120);
+        }
+    }
+
+    // every run needs a class which was not loaded before
+    static class AnotherColdTest {
+
+        // discovery already loads nested classes, but a proxy class is only defined on first use
+        interface LoadedByTheTest {
+        }
+
+        @Test
+        @Short
+        void coldTest() throws InterruptedException {
+            Proxy.newProxyInstance(LoadedByTheTest.class.getClassLoader(), new Class<?>[]{LoadedByTheTest.class},
+                                   (proxy, method, args) -> null);
+            // far more than the JIT could compile meanwhile
+            Thread.sleep(600);
+        }
+    }
+
+    private static SummaryGeneratingListener runColdTest(Class<?> testClass, String warmUp) {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(testClass)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true",
+                        "com.github.danny02.timelimit.warmup", warmUp
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener);
+
+        launcher.execute(request);
+        return listener;
+    }
+
+    @Test
+    void shouldMentionWarmUpInViolation() {
+        SummaryGeneratingListener listener = runColdTest(ColdTest.class, "report");
+
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+        String message = listener.getSummary().getFailures().get(0).getException().getMessage();
+        assertTrue(message.contains("classes were loaded"), message);
+    }
+
+    @Test
+    void shouldFailWarmUpRunFarOverItsBound() {
+        SummaryGeneratingListener listener = runColdTest(AnotherColdTest.class, "discount");
+
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+        String message = listener.getSummary().getFailures().get(0).getException().getMessage();
+        assertTrue(message.contains("classes were loaded"), message);
+    }
+
+    static class CollectingTest {
+
+        @Test
+        @TimeLimit("gc")
+        void collectingTest() {
+            long start = JvmActivity.gcPauseMillis();
+            for (int i = 0; i < 10_000 && JvmActivity.gcPauseMillis() - start < 300; i++) {
+                System.gc();
+            }
+        }
+    }
+
+    private static SummaryGeneratingListener runCollectingTest(String compensate) {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(CollectingTest.class)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true",
+                        "com.github.danny02.timeout.gc.lower", "0",
+                        "com.github.danny02.timeout.gc.upper", "250",
+                        "com.github.danny02.timelimit.gc.compensate", compensate
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener);
+
+        launcher.execute(request);
+        return listener;
+    }
+
+    @Test
+    void shouldCountGcPausesByDefault() {
+        SummaryGeneratingListener listener = runCollectingTest("false");
+
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+        String message = listener.getSummary().getFailures().get(0).getException().getMessage();
+        assertTrue(message.contains("'gc'"), message);
+    }
+
+    @Test
+    void shouldSubtractGcPausesWhenCompensating() {
+        assertEquals(1, runCollectingTest("true").getSummary().getTestsSucceededCount());
+    }
+
+    static class AllocatingTest {
+
+        static volatile Object sink;
+
+        @Test
+        @TimeLimit("alloc")
+        void allocatingTest() {
+            for (int i = 0; i < 16; i++) {
+                sink = new byte[1024 * 1024];
+            }
+        }
+
+        @Test
+        @TimeLimit("alloc")
+        void frugalTest() {
+            sink = new byte[1024];
+        }
+    }
+
+    @Test
+    void shouldFailTestExceedingItsAllocationLimit() {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(AllocatingTest.class)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true",
+                        "com.github.danny02.timeout.alloc.lower", "0",
+                        "com.github.danny02.timeout.alloc.upper", "10000",
+                        "com.github.danny02.timeout.alloc.allocation", "1m"
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener);
+
+        launcher.execute(request);
+
+        assertEquals(1, listener.getSummary().getTestsSucceededCount());
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+        String message = listener.getSummary().getFailures().get(0).getException().getMessage();
+        assertTrue(message.contains("category 'alloc' allows at most 1048576 bytes"), message);
+    }
+
+    static class NotAllocatingTest {
+
+        @Test
+        @TimeLimit("alloc")
+        void notAllocatingTest() {
+        }
+    }
+
+    @Test
+    void shouldNotCountTheAsyncAccountingAsAllocation() throws InterruptedException {
+        // a snapshot of the threads takes two arrays with an entry per thread
+        CountDownLatch released = new CountDownLatch(1);
+        List<Thread>   idle     = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            idle.add(thread);
+        }
+        try {
+            LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                    .request()
+                    .selectors(
+                            selectClass(NotAllocatingTest.class)
+                              )
+                    .filters()
+                    .configurationParameters(Map.of(
+                            "junit.jupiter.extensions.autodetection.enabled", "true",
+                            "com.github.danny02.timelimit.async", "report",
+                            "com.github.danny02.timeout.alloc.lower", "0",
+                            "com.github.danny02.timeout.alloc.upper", "10000",
+                            "com.github.danny02.timeout.alloc.allocation", "16k"
+                                                   ))
+                    .build();
+
+            Launcher launcher = LauncherFactory.create();
+
+            SummaryGeneratingListener listener = new SummaryGeneratingListener();
+            launcher.registerTestExecutionListeners(listener);
+
+            launcher.execute(request);
+
+            assertEquals(1, listener.getSummary().getTestsSucceededCount());
+        } finally {
+            released.countDown();
+            for (Thread thread : idle) {
+                thread.join();
+            }
+        }
+    }
+
+    static class ScopedTest {
+
+        @Test
+        @Short
+        void slowShortTest() throws InterruptedException {
+            Thread.sleep(120);
+        }
+    }
+
+    private static SummaryGeneratingListener runScopedTest(Map<String, String> parameters) {
+        Map<String, String> configuration = new HashMap<>(parameters);
+        configuration.put("junit.jupiter.extensions.autodetection.enabled", "true");
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(ScopedTest.class)
+                          )
+                .filters()
+                .configurationParameters(configuration)
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener);
+
+        launcher.execute(request);
+        return listener;
+    }
+
+    @Test
+    void shouldScaleBoundsOfConfiguredScope() {
+        assertEquals(1, runScopedTest(Map.of(
+                "com.github.danny02.timelimit.scopes", "com.github.danny02.extension.ExtensionIntegrationTest$ScopedTest=3"
+                                            )).getSummary().getTestsSucceededCount());
+        assertEquals(1, runScopedTest(Map.of(
+                "com.github.danny02.timelimit.scopes", "com.github.danny02.other=3"
+                                            )).getSummary().getTestsFailedCount());
+    }
+
+    @Test
+    void shouldSuggestCategoryOfTheUnscaledRuntimeInTheReport() throws IOException {
+        Path report = Files.createTempFile("timing-report", ".jsonl");
+        try {
+            runScopedTest(Map.of(
+                    "com.github.danny02.timelimit.scopes", "com.github.danny02.extension.ExtensionIntegrationTest$ScopedTest=3",
+                    "com.github.danny02.timelimit.report.file", report.toString()
+                                ));
+
+            // 120ms are medium, but only 40ms without the scale of the scope
+            List<String> lines = Files.readAllLines(report);
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).contains("\"suggestedCategory\":\"short\""), lines::toString);
+        } finally {
+            Files.delete(report);
+        }
+    }
+
+    @Test
+    void shouldScaleBoundsOfActiveProfile() {
+        Map<String, String> profiles = Map.of(
+                "com.github.danny02.timelimit.profile.ci.scale", "3",
+                "com.github.danny02.timelimit.profile.local.scale", "1"
+                                             );
+        Map<String, String> ci = new HashMap<>(profiles);
+        ci.put("com.github.danny02.timelimit.profile", "ci");
+        Map<String, String> local = new HashMap<>(profiles);
+        local.put("com.github.danny02.timelimit.profile", "local");
+
+        assertEquals(1, runScopedTest(ci).getSummary().getTestsSucceededCount());
+        assertEquals(1, runScopedTest(local).getSummary().getTestsFailedCount());
+    }
+
+    @Test
+    void shouldCollectViolationsUntilTheBudgetIsExceeded() throws IOException {
+        Path summary = Files.createTempFile("violations", ".txt");
+        try {
+            SummaryGeneratingListener listener = runScopedTest(Map.of(
+                    "com.github.danny02.timelimit.violations", "collect",
+                    "com.github.danny02.timelimit.violations.file", summary.toString()));
+            assertEquals(1, listener.getSummary().getTestsSucceededCount());
+            assertEquals(0, listener.getSummary().getTotalFailureCount());
+            assertEquals("1 tests were out of the bounds of their time limit category.",
+                         Files.readAllLines(summary).get(0));
+
+            listener = runScopedTest(Map.of(
+                    "com.github.danny02.timelimit.violations", "collect",
+                    "com.github.danny02.timelimit.violations.budget", "0",
+                    "com.github.danny02.timelimit.violations.file", summary.toString()));
+            assertEquals(1, listener.getSummary().getTestsSucceededCount());
+            assertEquals(1, listener.getSummary().getTotalFailureCount());
+            String message = listener.getSummary().getFailures().get(0).getException().getMessage();
+            assertTrue(message.startsWith("1 time limit violations exceed the budget of 0."), message);
+        } finally {
+            Files.delete(summary);
+        }
+    }
+
+    @Test
+    void shouldMergeReportsOfAllForks() throws IOException {
+        Path forks = Files.createTempDirectory("forks");
+        try {
+            // every launch has its own settings and report, like a forked JVM
+            Map<String, String> build = Map.of("com.github.danny02.timelimit.forks.dir", forks.toString(),
+                                               "com.github.danny02.timelimit.forks.build", "1");
+            runScopedTest(build);
+            runGettingSlowerTest(0, build, new ArrayList<>());
+
+            assertEquals(2, Files.readAllLines(forks.resolve(ForkAggregation.REPORT_FILE)).size());
+            List<String> summary = Files.readAllLines(forks.resolve(ForkAggregation.SUMMARY_FILE));
+            assertEquals("Merged the timing reports of 2 forks, 0 still running.", summary.get(0));
+
+            // the next build without a clean only reports the tests it ran
+            runScopedTest(Map.of("com.github.danny02.timelimit.forks.dir", forks.toString(),
+                                 "com.github.danny02.timelimit.forks.build", "2"));
+            assertEquals(1, Files.readAllLines(forks.resolve(ForkAggregation.REPORT_FILE)).size());
+        } finally {
+            try (Stream<Path> files = Files.walk(forks)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    void shouldApplyTheViolationBudgetToAllForks() throws IOException {
+        Path forks   = Files.createTempDirectory("forks");
+        Path summary = Files.createTempFile("violations", ".txt");
+        try {
+            Map<String, String> build = Map.of("com.github.danny02.timelimit.forks.dir", forks.toString(),
+                                               "com.github.danny02.timelimit.violations", "collect",
+                                               "com.github.danny02.timelimit.violations.budget", "1",
+                                               "com.github.danny02.timelimit.violations.file", summary.toString());
+            assertEquals(0, runScopedTest(build).getSummary().getTotalFailureCount());
+
+            // each fork stays within the budget on its own
+            SummaryGeneratingListener listener = runGettingSlowerTest(150, build, new ArrayList<>());
+            assertEquals(1, listener.getSummary().getTotalFailureCount());
+            String message = listener.getSummary().getFailures().get(0).getException().getMessage();
+            assertTrue(message.startsWith("2 time limit violations exceed the budget of 1."), message);
+        } finally {
+            Files.delete(summary);
+            try (Stream<Path> files = Files.walk(forks)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    static class GettingSlowerTest {
+
+        static volatile long sleepMillis;
+
+        @Test
+        @Short
+        void gettingSlowerTest() throws InterruptedException {
+            Thread.sleep(sleepMillis);
+        }
+    }
+
+    private static SummaryGeneratingListener runGettingSlowerTest(long sleepMillis, Map<String, String> parameters,
+                                                                  List<ReportEntry> entries) {
+        GettingSlowerTest.sleepMillis = sleepMillis;
+        Map<String, String> configuration = new HashMap<>(parameters);
+        configuration.put("junit.jupiter.extensions.autodetection.enabled", "true");
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(GettingSlowerTest.class)
+                          )
+                .filters()
+                .configurationParameters(configuration)
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.registerTestExecutionListeners(listener, new TestExecutionListener() {
+            @Override
+            public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
+                entries.add(entry);
+            }
+        });
+
+        launcher.execute(request);
+        return listener;
+    }
+
+    @Test
+    void shouldCompareWithBaselineOfPreviousReport() throws IOException {
+        Path baseline = Files.createTempFile("baseline", ".jsonl");
+        try {
+            runGettingSlowerTest(0, Map.of("com.github.danny02.timelimit.report.file", baseline.toString()),
+                                 new ArrayList<>());
+
+            List<ReportEntry>         entries  = new ArrayList<>();
+            SummaryGeneratingListener listener = runGettingSlowerTest(60, Map.of(
+                    "com.github.danny02.timelimit.baseline.file", baseline.toString()), entries);
+
+            assertEquals(1, listener.getSummary().getTestsFailedCount());
+            String message = listener.getSummary().getFailures().get(0).getException().getMessage();
+            assertTrue(message.matches("(?s).*slower than the \\d+ms of the baseline.*"), message);
+            assertTrue(entries.stream().anyMatch(entry -> entry.getKeyValuePairs().getOrDefault(
+                    "timelimit.baseline", "").startsWith("1 of 1 tests got slower")), entries::toString);
+
+            listener = runGettingSlowerTest(60, Map.of(
+                    "com.github.danny02.timelimit.baseline.file", baseline.toString(),
+                    "com.github.danny02.timelimit.baseline.fail", "false"), new ArrayList<>());
+            assertEquals(1, listener.getSummary().getTestsSucceededCount());
+        } finally {
+            Files.delete(baseline);
+        }
+    }
+
+    static class AsyncTest {
+
+        @Test
+        @TimeLimit("async")
+        void leakingTest() {
+            Thread worker = new Thread(() -> {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "leaking-worker");
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        @Test
+        @TimeLimit("async")
+        void awaitingTest() throws Exception {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                executor.submit(() -> {
+                    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                    long         end     = threads.getCurrentThreadCpuTime() + TimeUnit.MILLISECONDS.toNanos(50);
+                    while (threads.getCurrentThreadCpuTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                }).get();
+            } finally {
+                // the worker terminates before the test returns
+                executor.shutdown();
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    void shouldAccountForWorkOfOtherThreads() {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(AsyncTest.class)
+                          )
+                .filters()
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true",
+                        "com.github.danny02.timeout.async.lower", "0",
+                        "com.github.danny02.timeout.async.upper", "10000",
+                        "com.github.danny02.timelimit.async", "fail"
+                                               ))
+                .build();
+
+        Launcher launcher = LauncherFactory.create();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        Map<String, String>       entries  = new HashMap<>();
+        launcher.registerTestExecutionListeners(listener, new TestExecutionListener() {
+            @Override
+            public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
+                entry.getKeyValuePairs().forEach((key, value) -> entries.put(
+                        testIdentifier.getDisplayName() + " " + key, value));
+            }
+        });
+
+        launcher.execute(request);
+
+        assertEquals(1, listener.getSummary().getTestsSucceededCount());
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+        String message = listener.getSummary().getFailures().get(0).getException().getMessage();
+        assertTrue(message.contains("still running after it: leaking-worker"), message);
+        assertTrue(Long.parseLong(entries.get("awaitingTest() timelimit.async.cpu")) >= 40, entries::toString);
+    }
 }
@@ -0,0 +1,128 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.github.danny02.extension.TimeoutBound.fromMs;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Optional.empty;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForkAggregationTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("forks");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private static String line(String testId, long runtimeMillis, String verdict) {
+        return TimingReport.toJson(new TimingReport.Result(testId, "short", fromMs(0, 100),
+                                                           MILLISECONDS.toNanos(runtimeMillis), 0, -1, verdict,
+                                                           empty(), List.of()));
+    }
+
+    private Path fork(String build, String... lines) throws IOException {
+        Path fork = Files.createTempFile(directory, ForkAggregation.forkPrefix(build), ForkAggregation.FORK_SUFFIX);
+        Files.write(fork, List.of(lines));
+        return fork;
+    }
+
+    @Test
+    void shouldMergeReportsOfFinishedForks() throws IOException {
+        fork("current", line("a", 10, "ok"), line("b", 150, "violation"));
+        Path crashed = fork("current", line("c", 30, "ok"));
+        Files.write(crashed, List.of("{\"id\":\"d\",\"category\":\"short\",\"lowerMs\":0,\"runtimeNanos\":"), APPEND);
+        Path running = fork("current", line("e", 20, "ok"));
+
+        try (FileChannel channel = FileChannel.open(running, WRITE)) {
+            channel.lock();
+            assertEquals(1, ForkAggregation.merge(directory, "current"));
+        }
+
+        List<String> merged = Files.readAllLines(directory.resolve(ForkAggregation.REPORT_FILE));
+        assertEquals(3, merged.size());
+        assertTrue(merged.contains(line("b", 150, "violation")), merged::toString);
+
+        String summary = String.join("\n", Files.readAllLines(directory.resolve(ForkAggregation.SUMMARY_FILE)));
+        assertTrue(summary.startsWith("Merged the timing reports of 2 forks, 1 still running."), summary);
+        assertTrue(summary.contains("3 tests, verdicts: {ok=2, violation=1}"), summary);
+        assertTrue(summary.contains("short: 3 tests, 1 violations, p50 30ms, p95 150ms, max 150ms, total 190ms"),
+                   summary);
+        assertTrue(summary.contains("b: took 150ms, categorized as 'short'"), summary);
+    }
+
+    @Test
+    void shouldReplaceResultsOfTestsRunAgain() throws IOException {
+        fork("current", line("a", 10, "ok"), line("b", 150, "violation"));
+        Path rerun = fork("current", line("c", 30, "ok"));
+        fork("current", line("b", 20, "ok"), line("c", 40, "ok"));
+
+        assertEquals(0, ForkAggregation.merge(directory, "current"));
+
+        List<String> merged = Files.readAllLines(directory.resolve(ForkAggregation.REPORT_FILE));
+        assertEquals(List.of(line("a", 10, "ok"), line("b", 20, "ok"), line("c", 40, "ok")), merged);
+        String summary = String.join("\n", Files.readAllLines(directory.resolve(ForkAggregation.SUMMARY_FILE)));
+        assertTrue(summary.startsWith("Merged the timing reports of 2 forks, 0 still running."), summary);
+        assertFalse(Files.exists(rerun));
+    }
+
+    @Test
+    void shouldDropResultsOfEarlierBuilds() throws IOException {
+        Path earlier = fork("earlier", line("a", 10, "ok"), line("b", 150, "violation"));
+        Path running = fork("concurrent", line("c", 30, "ok"));
+        fork("current", line("b", 20, "ok"));
+
+        try (FileChannel channel = FileChannel.open(running, WRITE)) {
+            channel.lock();
+            assertEquals(0, ForkAggregation.merge(directory, "current"));
+        }
+
+        // the removed test a doesn't linger in the report
+        assertEquals(List.of(line("b", 20, "ok")),
+                     Files.readAllLines(directory.resolve(ForkAggregation.REPORT_FILE)));
+        String summary = String.join("\n", Files.readAllLines(directory.resolve(ForkAggregation.SUMMARY_FILE)));
+        assertTrue(summary.startsWith("Merged the timing reports of 1 forks, 0 still running."), summary);
+        assertFalse(Files.exists(earlier));
+        assertTrue(Files.exists(running));
+    }
+
+    @Test
+    void shouldKeepBuildsApartInFileNames() {
+        assertEquals("ci_build__12", ForkAggregation.build(Optional.of("ci-build #12")));
+        // the forks of a build share the process which started them
+        assertEquals(ForkAggregation.build(empty()), ForkAggregation.build(empty()));
+    }
+
+    @Test
+    void shouldMergeAgainWhenAnotherForkFinishes() throws IOException {
+        fork("current", line("a", 10, "ok"));
+        ForkAggregation.merge(directory, "current");
+        fork("current", line("b", 20, "ok"));
+        ForkAggregation.merge(directory, "current");
+
+        assertEquals(2, Files.readAllLines(directory.resolve(ForkAggregation.REPORT_FILE)).size());
+    }
+}
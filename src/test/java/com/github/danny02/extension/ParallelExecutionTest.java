@@ -0,0 +1,106 @@
+package com.github.danny02.extension;
+
+import com.github.danny02.annotation.Short;
+import com.github.danny02.annotation.TimeLimit;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+public class ParallelExecutionTest {
+    static final int REPETITIONS = 500;
+
+    static class ManyShortTests {
+
+        @Short
+        @RepeatedTest(REPETITIONS)
+        void busyTest() {
+            long deadline = System.nanoTime() + 1_000_000;
+            while (System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    static class ManyImpossibleTests {
+
+        @TimeLimit("impossible")
+        @RepeatedTest(REPETITIONS)
+        void impossibleTest() {
+        }
+    }
+
+    static class SleepingTest {
+
+        @Test
+        @Short
+        void sleepingTest() throws InterruptedException {
+            Thread.sleep(150);
+        }
+    }
+
+    @Test
+    void shouldMeasureEveryTestUnderHeavyConcurrency() {
+        TestExecutionSummary summary = execute(ManyShortTests.class, Map.of(
+                "junit.jupiter.execution.parallel.enabled", "true",
+                "junit.jupiter.execution.parallel.mode.default", "concurrent",
+                "junit.jupiter.execution.parallel.config.strategy", "fixed",
+                "junit.jupiter.execution.parallel.config.fixed.parallelism", "16"));
+
+        assertEquals(REPETITIONS, summary.getTestsSucceededCount(), () -> summary.getFailures().toString());
+    }
+
+    @Test
+    void shouldNotLoseAnyMeasurementUnderHeavyConcurrency() {
+        TestExecutionSummary summary = execute(ManyImpossibleTests.class, Map.of(
+                "junit.jupiter.execution.parallel.enabled", "true",
+                "junit.jupiter.execution.parallel.mode.default", "concurrent",
+                "junit.jupiter.execution.parallel.config.strategy", "fixed",
+                "junit.jupiter.execution.parallel.config.fixed.parallelism", "16",
+                "com.github.danny02.timeout.impossible.lower", "0",
+                "com.github.danny02.timeout.impossible.upper", "0"));
+
+        assertEquals(REPETITIONS, summary.getTestsFailedCount());
+    }
+
+    @Test
+    void shouldValidateCpuTimeIfConfigured() {
+        TestExecutionSummary summary = execute(SleepingTest.class, Map.of(
+                "com.github.danny02.timeout.short.measure", "cpu"));
+
+        assertEquals(1, summary.getTestsSucceededCount(), () -> summary.getFailures().toString());
+    }
+
+    @Test
+    void shouldValidateWallTimeByDefault() {
+        TestExecutionSummary summary = execute(SleepingTest.class, Map.of());
+
+        assertEquals(1, summary.getTestsFailedCount());
+    }
+
+    private static TestExecutionSummary execute(Class<?> testClass, Map<String, String> configuration) {
+        Map<String, String> parameters = new HashMap<>(configuration);
+        parameters.put("junit.jupiter.extensions.autodetection.enabled", "true");
+
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(selectClass(testClass))
+                .configurationParameters(parameters)
+                .build();
+
+        Launcher                  launcher = LauncherFactory.create();
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.execute(request, listener);
+        return listener.getSummary();
+    }
+}
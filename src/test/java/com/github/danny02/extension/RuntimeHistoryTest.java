@@ -0,0 +1,181 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.danny02.extension.TimeoutBound.fromMs;
+import static java.util.Optional.empty;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeHistoryTest {
+
+    Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("runtime-history");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void shouldReadRuntimesOfPreviousRuns() throws IOException {
+        for (int run = 1; run <= 3; run++) {
+            try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+                history.record("test", "short", run);
+            }
+        }
+
+        try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+            assertEquals(3, history.samples("test").get().size());
+            assertEquals(2, history.samples("test").get().percentile(0.5));
+        }
+    }
+
+    @Test
+    void shouldCompactSegmentsOfFinishedRuns() throws IOException {
+        for (int run = 0; run < 20; run++) {
+            try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+                history.record("test", "short", run);
+            }
+        }
+
+        try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+            assertEquals(20, history.samples("test").get().size());
+        }
+        assertTrue(segments().size() < 20, segments().toString());
+    }
+
+    @Test
+    void shouldKeepTheLatestSamplesAcrossCompactions() throws IOException {
+        int runs = RuntimeHistory.SAMPLES_PER_TEST + 30;
+        for (int run = 0; run < runs; run++) {
+            try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+                history.record("test", "short", run);
+            }
+        }
+
+        try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+            long[] latest = history.samples("test").get().latest(RuntimeHistory.SAMPLES_PER_TEST);
+            for (int i = 0; i < latest.length; i++) {
+                assertEquals(runs - RuntimeHistory.SAMPLES_PER_TEST + i, latest[i]);
+            }
+        }
+    }
+
+    @Test
+    void shouldReadConsistentlyWhileOtherRunsCompact() throws Exception {
+        int             threads  = 4;
+        int             runs     = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> forks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String testId = "test-" + t;
+                forks.add(executor.submit(() -> {
+                    for (int run = 0; run < runs; run++) {
+                        try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+                            history.record(testId, "short", run);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> fork : forks) {
+                fork.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+            for (int t = 0; t < threads; t++) {
+                assertEquals(runs, history.samples("test-" + t).get().size());
+            }
+        }
+    }
+
+    @Test
+    void shouldReportTestsWithBetterCategory() throws IOException {
+        ConfiguredTimeLimits timeLimits = new ConfiguredTimeLimits(
+                s -> empty(), s -> empty(),
+                Map.of("small", fromMs(0, 100),
+                       "big", fromMs(100, 1000)));
+
+        try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+            for (int run = 0; run < 5; run++) {
+                history.record("slow", "small", MILLISECONDS.toNanos(500));
+                history.record("fast", "small", MILLISECONDS.toNanos(50));
+            }
+            history.writeRecategorizationReport(timeLimits);
+        }
+
+        List<String> report = Files.readAllLines(directory.resolve("recategorization-report.txt"));
+        assertEquals(1, report.size(), report.toString());
+        assertTrue(report.get(0).startsWith("slow:"), report.toString());
+        assertTrue(report.get(0).contains("'big'"), report.toString());
+    }
+
+    @Test
+    void shouldProposeCategoriesSeparatingTheRecordedTests() throws IOException {
+        ConfiguredTimeLimits timeLimits = new ConfiguredTimeLimits(
+                s -> empty(), s -> empty(),
+                Map.of("small", fromMs(0, 100),
+                       "big", fromMs(100, 1000)));
+
+        Path proposal = directory.resolve("categories.properties");
+        try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+            for (int test = 0; test < 10; test++) {
+                history.record("fast-" + test, "small", MILLISECONDS.toNanos(10 + test));
+                history.record("slow-" + test, "small", MILLISECONDS.toNanos(400 + 10 * test));
+            }
+            history.writeCategoryProposal(proposal, timeLimits);
+        }
+
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(proposal)) {
+            properties.load(in);
+        }
+        assertEquals("0", properties.getProperty("com.github.danny02.timeout.small.lower"));
+        long upper = Long.parseLong(properties.getProperty("com.github.danny02.timeout.small.upper"));
+        long lower = Long.parseLong(properties.getProperty("com.github.danny02.timeout.big.lower"));
+        assertTrue(19 < lower && lower < upper && upper < 400, lower + " to " + upper);
+        assertEquals(null, properties.getProperty("com.github.danny02.timeout.big.upper"));
+
+        List<String> lines = Files.readAllLines(proposal);
+        assertTrue(lines.contains("# slow-3: small -> big (p95 430ms)"), lines.toString());
+        assertFalse(lines.stream().anyMatch(line -> line.startsWith("# fast-")), lines.toString());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.toString().endsWith(".history")).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RuntimeSamplesTest {
+
+    @Test
+    void shouldComputeNearestRankPercentiles() {
+        RuntimeSamples samples = new RuntimeSamples(100);
+        for (long i = 100; i >= 1; i--) {
+            samples.add(i);
+        }
+
+        assertEquals(50, samples.percentile(0.5));
+        assertEquals(95, samples.percentile(0.95));
+        assertEquals(100, samples.percentile(1));
+        assertEquals(1, samples.percentile(0));
+    }
+
+    @Test
+    void shouldOnlyKeepLatestSamples() {
+        RuntimeSamples samples = new RuntimeSamples(3);
+        for (long i = 1; i <= 5; i++) {
+            samples.add(i);
+        }
+
+        assertEquals(3, samples.size());
+        assertArrayEquals(new long[]{3, 4, 5}, samples.toArray());
+    }
+
+    @Test
+    void shouldRejectPercentileWithoutSamples() {
+        assertThrows(IllegalStateException.class, () -> new RuntimeSamples(3).percentile(0.5));
+    }
+}
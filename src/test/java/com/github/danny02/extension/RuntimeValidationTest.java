@@ -0,0 +1,70 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static com.github.danny02.extension.TimeoutBound.fromMs;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeValidationTest {
+
+    TimeoutBound bounds = fromMs(0, 100);
+
+    @Test
+    void strictShouldReportEveryRunOutOfBounds() {
+        RuntimeValidation validation = RuntimeValidation.strict();
+
+        assertTrue(validation.isViolation(bounds, ms(110), Optional.empty()));
+        assertFalse(validation.isViolation(bounds, ms(90), Optional.empty()));
+    }
+
+    @Test
+    void quantileShouldTolerateSingleOutlier() {
+        RuntimeSamples history = samples(50, 50, 50, 50, 50, 50, 50, 50, 50, 110);
+
+        assertFalse(RuntimeValidation.quantile(0.9).isViolation(bounds, ms(110), Optional.of(history)));
+    }
+
+    @Test
+    void quantileShouldReportSystematicallySlowTest() {
+        RuntimeSamples history = samples(50, 50, 110, 110, 110);
+
+        assertTrue(RuntimeValidation.quantile(0.5).isViolation(bounds, ms(110), Optional.of(history)));
+    }
+
+    @Test
+    void quantileShouldBeStrictWithoutEnoughHistory() {
+        RuntimeSamples history = samples(110);
+
+        assertTrue(RuntimeValidation.quantile(0.9).isViolation(bounds, ms(110), Optional.of(history)));
+        assertTrue(RuntimeValidation.quantile(0.9).isViolation(bounds, ms(110), Optional.empty()));
+    }
+
+    @Test
+    void consecutiveShouldReportOnlyRepeatedViolations() {
+        RuntimeValidation validation = RuntimeValidation.consecutive(3);
+
+        assertFalse(validation.isViolation(bounds, ms(110), Optional.of(samples(50, 110, 110))));
+        assertTrue(validation.isViolation(bounds, ms(110), Optional.of(samples(50, 110, 110, 110))));
+    }
+
+    @Test
+    void consecutiveShouldBeStrictWithoutEnoughHistory() {
+        assertTrue(RuntimeValidation.consecutive(3).isViolation(bounds, ms(110), Optional.of(samples(110))));
+    }
+
+    private static RuntimeSamples samples(long... runtimesInMs) {
+        RuntimeSamples samples = new RuntimeSamples(runtimesInMs.length);
+        for (long runtime : runtimesInMs) {
+            samples.add(ms(runtime));
+        }
+        return samples;
+    }
+
+    private static long ms(long millis) {
+        return MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScopedScalesTest {
+
+    @Test
+    void shouldUseTheMostSpecificPattern() {
+        ScopedScales scales = ScopedScales.parse("com.example=2, com.example.db.*=3, com.example.db.SlowIT=4", "key");
+
+        assertEquals(2, scales.scaleOf("com.example.web.ControllerTest"));
+        assertEquals(3, scales.scaleOf("com.example.db.RepositoryTest"));
+        assertEquals(4, scales.scaleOf("com.example.db.SlowIT"));
+        assertEquals(1, scales.scaleOf("org.example.db.SlowIT"));
+    }
+
+    @Test
+    void shouldOnlyMatchWholeSegments() {
+        ScopedScales scales = ScopedScales.parse("com.example.db=3", "key");
+
+        assertEquals(1, scales.scaleOf("com.example.dbx.RepositoryTest"));
+        assertEquals(1, scales.scaleOf("com.example"));
+    }
+
+    @Test
+    void shouldScaleNestedClassesLikeTheirEnclosingClass() {
+        ScopedScales scales = ScopedScales.parse("com.example.SlowIT=4,com.example.SlowIT$Fast=0.5", "key");
+
+        assertEquals(4, scales.scaleOf("com.example.SlowIT$Nested"));
+        assertEquals(0.5, scales.scaleOf("com.example.SlowIT$Fast"));
+    }
+
+    @Test
+    void shouldLetLaterEntriesOverrideEarlierOnes() {
+        assertEquals(5, ScopedScales.parse("com.example=2,,com.example=5", "key").scaleOf("com.example.Test"));
+    }
+
+    @Test
+    void shouldRejectMalformedEntries() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> ScopedScales.parse("com.example", "key"));
+        assertTrue(e.getMessage().contains("'key'"), e.getMessage());
+        assertThrows(RuntimeException.class, () -> ScopedScales.parse("com.example=fast", "key"));
+        assertThrows(RuntimeException.class, () -> ScopedScales.parse("com.example=0", "key"));
+        assertThrows(RuntimeException.class, () -> ScopedScales.parse("=2", "key"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StackProfileTest {
+
+    Watchdog watchdog = new Watchdog();
+
+    @AfterEach
+    void shutDown() {
+        watchdog.shutdown();
+    }
+
+    @Test
+    void shouldCollapseStackRootFirst() {
+        StackTraceElement[] stack = {
+                new StackTraceElement("a.Leaf", "run", null, 1),
+                new StackTraceElement("a.Root", "main", null, 1)
+        };
+
+        assertEquals("a.Root.main;a.Leaf.run", StackProfile.collapse(stack));
+    }
+
+    @Test
+    void shouldSampleSlowThread() {
+        StackProfile profile = watchdog.profile(Thread.currentThread(), ofMillis(0), ofMillis(1));
+        busyWaitInThisMethod(50);
+        List<String> stacks = profile.stop();
+
+        assertFalse(stacks.isEmpty());
+        assertTrue(stacks.stream().anyMatch(s -> s.contains("StackProfileTest.busyWaitInThisMethod")), stacks::toString);
+        assertTrue(stacks.get(0).matches(".* \\d+"), stacks.get(0));
+    }
+
+    @Test
+    void shouldNotSampleFastThread() {
+        StackProfile profile = watchdog.profile(Thread.currentThread(), ofSeconds(5), ofMillis(1));
+
+        assertTrue(profile.stop().isEmpty());
+    }
+
+    private static void busyWaitInThisMethod(long millis) {
+        long end = System.nanoTime() + millis * 1_000_000;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
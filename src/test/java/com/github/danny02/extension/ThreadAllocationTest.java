@@ -0,0 +1,36 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThreadAllocationTest {
+
+    @Test
+    void shouldParseBytesWithSuffix() {
+        assertEquals(1000, ThreadAllocation.parseBytes("1000", "key"));
+        assertEquals(512 * 1024, ThreadAllocation.parseBytes("512k", "key"));
+        assertEquals(64L * 1024 * 1024, ThreadAllocation.parseBytes(" 64M ", "key"));
+        assertEquals(2L * 1024 * 1024 * 1024, ThreadAllocation.parseBytes("2g", "key"));
+    }
+
+    @Test
+    void shouldRejectMalformedBytes() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> ThreadAllocation.parseBytes("lots", "key"));
+        assertTrue(e.getMessage().contains("'key'"), e.getMessage());
+        assertThrows(RuntimeException.class, () -> ThreadAllocation.parseBytes("-1k", "key"));
+        assertThrows(RuntimeException.class, () -> ThreadAllocation.parseBytes("9999999999999g", "key"));
+    }
+
+    @Test
+    void shouldCountAllocationsOfTheCurrentThread() {
+        byte[] allocated = null;
+        long   before    = ThreadAllocation.allocatedBytes();
+        for (int i = 0; i < 4; i++) {
+            allocated = new byte[1024 * 1024];
+        }
+        assertTrue(ThreadAllocation.allocatedBytes() - before >= 4 * allocated.length);
+    }
+}
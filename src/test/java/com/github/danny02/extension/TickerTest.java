@@ -0,0 +1,29 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickerTest {
+
+    @Test
+    void shouldConvertClockToNanoseconds() {
+        Clock  clock  = Clock.fixed(Instant.ofEpochSecond(2, 500), ZoneOffset.UTC);
+        Ticker ticker = Ticker.fromClock(clock);
+
+        assertEquals(2_000_000_500L, ticker.read());
+    }
+
+    @Test
+    void systemTickerShouldBeMonotonic() {
+        Ticker ticker = Ticker.system();
+        long   first  = ticker.read();
+
+        assertTrue(ticker.read() - first >= 0);
+    }
+}
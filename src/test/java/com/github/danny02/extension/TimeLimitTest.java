@@ -9,6 +9,7 @@ import java.lang.reflect.Method;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class TimeLimitTest {
 
@@ -31,6 +32,33 @@ public class TimeLimitTest {
         }
     }
 
+    @Short
+    interface ShortTests {
+    }
+
+    static class TestClassWithInterface implements ShortTests {
+        void testWithoutAnnotation() {
+
+        }
+    }
+
+    @Long
+    static class EnclosingTestClass {
+
+        class NestedTestClass {
+            void testWithoutAnnotation() {
+
+            }
+        }
+
+        @Short
+        class AnnotatedNestedTestClass {
+            void testWithoutAnnotation() {
+
+            }
+        }
+    }
+
     @Test
     void shouldFindAnnotationOnTestMethod() throws NoSuchMethodException {
         TimeLimitExtension extension  = new TimeLimitExtension();
@@ -54,4 +82,29 @@ public class TimeLimitTest {
         Optional<String>   category   = extension.getCategoryFromAnnotation(testMethod);
         assertEquals(Optional.empty(), category);
     }
+
+    @Test
+    void shouldFindAnnotationOnInterface() throws NoSuchMethodException {
+        TimeLimitExtension extension  = new TimeLimitExtension();
+        Method             testMethod = TestClassWithInterface.class.getDeclaredMethod("testWithoutAnnotation");
+        assertEquals(Optional.of("short"), extension.getCategoryFromAnnotation(testMethod));
+    }
+
+    @Test
+    void shouldFindAnnotationOnEnclosingClassOfNestedTest() throws NoSuchMethodException {
+        TimeLimitExtension extension = new TimeLimitExtension();
+        Method             nested    = EnclosingTestClass.NestedTestClass.class.getDeclaredMethod("testWithoutAnnotation");
+        Method             annotated = EnclosingTestClass.AnnotatedNestedTestClass.class
+                .getDeclaredMethod("testWithoutAnnotation");
+        assertEquals(Optional.of("long"), extension.getCategoryFromAnnotation(nested));
+        assertEquals(Optional.of("short"), extension.getCategoryFromAnnotation(annotated));
+    }
+
+    @Test
+    void shouldResolveTheSameCategoryForRepeatedLookups() throws NoSuchMethodException {
+        TimeLimitExtension extension  = new TimeLimitExtension();
+        Method             testMethod = TestClassWithAnnotations.class.getDeclaredMethod("testWithAnnotation");
+        Optional<String>   first      = extension.getCategoryFromAnnotation(testMethod);
+        assertSame(first, extension.getCategoryFromAnnotation(testMethod));
+    }
 }
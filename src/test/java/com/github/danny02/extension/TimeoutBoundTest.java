@@ -48,4 +48,47 @@ class TimeoutBoundTest {
     void biggerDurationShouldBeOutOfBounds() {
         assertFalse(bound.isInBound(ofMillis(UPPER + 1)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void finiteUpperBoundShouldBeBounded() {
+        assertTrue(bound.isUpperBounded());
+    }
+
+    @Test
+    void maximalUpperBoundShouldBeUnbounded() {
+        assertFalse(TimeoutBound.fromMs(LOWER, Long.MAX_VALUE).isUpperBounded());
+    }
+
+    @Test
+    void nanosecondsShouldUseSameBounds() {
+        assertFalse(bound.isInBound(ofMillis(LOWER).toNanos() - 1));
+        assertTrue(bound.isInBound(ofMillis(LOWER).toNanos()));
+        assertTrue(bound.isInBound(ofMillis(UPPER).toNanos()));
+        assertFalse(bound.isInBound(ofMillis(UPPER).toNanos() + 1));
+    }
+
+    @Test
+    void unboundedUpperShouldAcceptAllNanoseconds() {
+        assertTrue(TimeoutBound.fromMs(LOWER, Long.MAX_VALUE).isInBound(Long.MAX_VALUE));
+    }
+
+    @Test
+    void scalingShouldStretchBothBounds() {
+        assertEquals(TimeoutBound.fromMs(2 * LOWER, 2 * UPPER), bound.scale(2));
+    }
+
+    @Test
+    void scalingShouldKeepUnboundedUpper() {
+        assertFalse(TimeoutBound.fromMs(LOWER, Long.MAX_VALUE).scale(2).isUpperBounded());
+    }
+
+    @Test
+    void shouldExpectMiddleOfBounds() {
+        assertEquals(ofMillis((LOWER + UPPER) / 2).toNanos(), bound.expectedNanos());
+    }
+
+    @Test
+    void shouldExpectLowerBoundIfUnbounded() {
+        assertEquals(ofMillis(LOWER).toNanos(), TimeoutBound.fromMs(LOWER, Long.MAX_VALUE).expectedNanos());
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+
+import static com.github.danny02.extension.TimeoutBound.fromMs;
+import static java.time.Duration.ofSeconds;
+import static java.util.Optional.empty;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class TimingReportTest {
+
+    @Test
+    void shouldFormatResultAsJson() {
+        TimingReport.Result result = new TimingReport.Result("[engine:junit-jupiter]/[method:\"quoted\"\\]",
+                                                             "short", fromMs(0, 100), 1234, 0, -1, "ok", empty(),
+                                                             List.of("a.B.c;d.E.f 3"));
+
+        assertEquals("{\"id\":\"[engine:junit-jupiter]/[method:\\\"quoted\\\"\\\\]\",\"category\":\"short\"," +
+                     "\"lowerMs\":0,\"upperMs\":100,\"runtimeNanos\":1234,\"gcPauseMillis\":0,\"allocatedBytes\":null,\"verdict\":\"ok\",\"suggestedCategory\":null," +
+                     "\"stacks\":[\"a.B.c;d.E.f 3\"]}",
+                     TimingReport.toJson(result));
+    }
+
+    @Test
+    void shouldWriteUnboundedUpperAsNull() {
+        TimingReport.Result result = new TimingReport.Result("id", "eternal", fromMs(1500, Long.MAX_VALUE),
+                                                             MILLISECONDS.toNanos(50), 7, 2048, "violation",
+                                                             Optional.of("short"), List.of());
+
+        assertEquals("{\"id\":\"id\",\"category\":\"eternal\",\"lowerMs\":1500,\"upperMs\":null," +
+                     "\"runtimeNanos\":50000000,\"gcPauseMillis\":7,\"allocatedBytes\":2048,\"verdict\":\"violation\",\"suggestedCategory\":\"short\",\"stacks\":[]}",
+                     TimingReport.toJson(result));
+    }
+
+    @Test
+    void shouldWriteAllResultsOnClose() throws IOException {
+        Path file = Files.createTempFile("timing-report", ".jsonl");
+        try {
+            TimingReport report = TimingReport.open(file);
+            for (int i = 0; i < 5000; i++) {
+                report.add(new TimingReport.Result("test-" + i, "short", fromMs(0, 100), i, 0, -1, "ok", empty(), List.of()));
+            }
+            report.close();
+
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(5000, lines.size());
+            assertEquals(TimingReport.toJson(new TimingReport.Result("test-4999", "short", fromMs(0, 100), 4999, 0, -1,
+                                                                     "ok", empty(), List.of())),
+                         lines.get(4999));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void shouldNotBlockTestsWhenWritingFails() {
+        TimingReport report = new TimingReport(Paths.get("failing.jsonl"), new BufferedWriter(failingWriter(), 1));
+
+        IOException failure = assertTimeoutPreemptively(ofSeconds(10), () -> assertThrows(IOException.class, () -> {
+            // more results than fit into the queue
+            for (int i = 0; i < 100_000; i++) {
+                report.add(new TimingReport.Result("test-" + i, "short", fromMs(0, 100), i, 0, -1, "ok", empty(),
+                                                   List.of()));
+            }
+            report.close();
+        }));
+        assertEquals("disk full", failure.getCause().getMessage());
+    }
+
+    @Test
+    void shouldCloseWhenTheFailingBatchEndedTheReport() {
+        // the writer mostly picks up the result together with the end of the report
+        assertTimeoutPreemptively(ofSeconds(10), () -> {
+            for (int i = 0; i < 100; i++) {
+                TimingReport report = new TimingReport(Paths.get("failing.jsonl"),
+                                                       new BufferedWriter(failingWriter(), 1));
+                report.add(new TimingReport.Result("test", "short", fromMs(0, 100), i, 0, -1, "ok", empty(),
+                                                   List.of()));
+                assertThrows(IOException.class, report::close);
+            }
+        });
+    }
+
+    private static Writer failingWriter() {
+        return new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
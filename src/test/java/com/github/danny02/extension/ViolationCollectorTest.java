@@ -0,0 +1,49 @@
+package com.github.danny02.extension;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViolationCollectorTest {
+
+    private static final TimeoutBound SHORT = TimeoutBound.fromMs(0, 100);
+    private static final TimeoutBound LONG  = TimeoutBound.fromMs(500, 5000);
+
+    @Test
+    void shouldSummarizeNoViolations() {
+        assertEquals(String.format("0 tests were out of the bounds of their time limit category.%n"),
+                     new ViolationCollector().summary());
+    }
+
+    @Test
+    void shouldRankOffendersByTheirExcess() {
+        ViolationCollector collector = new ViolationCollector();
+        collector.add(new ViolationCollector.Violation("a", "short", SHORT, 150_000_000, Optional.of("medium")));
+        collector.add(new ViolationCollector.Violation("b", "short", SHORT, 400_000_000, Optional.of("medium")));
+        collector.add(new ViolationCollector.Violation("c", "long", LONG, 100_000_000, Optional.of("short")));
+
+        String summary = collector.summary();
+        assertEquals(3, collector.size());
+        assertTrue(summary.startsWith(String.format("3 tests were out of the bounds of their time limit category.%n")),
+                   summary);
+        assertTrue(summary.indexOf(" c took 100ms") < summary.indexOf(" b took 400ms"), summary);
+        assertTrue(summary.indexOf(" b took 400ms") < summary.indexOf(" a took 150ms"), summary);
+        assertTrue(summary.contains("long: 1 violations, 400ms outside of the bounds, 0ms"), summary);
+        assertTrue(summary.contains("short: 2 violations, 350ms outside of the bounds, 550ms"), summary);
+        assertTrue(summary.contains("would take 550ms out of their categories"), summary);
+    }
+
+    @Test
+    void shouldListOnlyTheWorstOffenders() {
+        ViolationCollector collector = new ViolationCollector();
+        for (int i = 0; i < ViolationCollector.WORST_OFFENDERS + 5; i++) {
+            collector.add(new ViolationCollector.Violation("test" + i, "short", SHORT, 200_000_000 + i,
+                                                           Optional.empty()));
+        }
+        long listed = collector.summary().lines().filter(line -> line.contains(" took ")).count();
+        assertEquals(ViolationCollector.WORST_OFFENDERS, listed);
+    }
+}
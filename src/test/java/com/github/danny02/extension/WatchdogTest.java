@@ -0,0 +1,59 @@
+package com.github.danny02.extension;
+
+import com.github.danny02.extension.Watchdog.Deadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WatchdogTest {
+
+    Watchdog watchdog = new Watchdog();
+
+    @AfterEach
+    void shutDown() {
+        watchdog.shutdown();
+    }
+
+    @Test
+    void shouldInterruptThreadAfterTimeout() {
+        Deadline deadline = watchdog.arm(Thread.currentThread(), ofMillis(20));
+
+        assertThrows(InterruptedException.class, () -> Thread.sleep(5_000));
+        assertTrue(deadline.disarm());
+    }
+
+    @Test
+    void shouldClearInterruptAfterDisarm() {
+        Deadline deadline = watchdog.arm(Thread.currentThread(), ofMillis(1));
+        while (!Thread.currentThread().isInterrupted()) {
+            Thread.onSpinWait();
+        }
+
+        assertTrue(deadline.disarm());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void shouldNotFireWhenDisarmedInTime() throws InterruptedException {
+        Deadline deadline = watchdog.arm(Thread.currentThread(), ofSeconds(5));
+
+        assertFalse(deadline.disarm());
+        Thread.sleep(10);
+    }
+
+    @Test
+    void shouldCaptureStackOfInterruptedThread() {
+        Deadline deadline = watchdog.arm(Thread.currentThread(), ofMillis(20));
+
+        assertThrows(InterruptedException.class, () -> Thread.sleep(5_000));
+        deadline.disarm();
+
+        StackTraceElement[] stack = deadline.stackDump().getStackTrace();
+        assertTrue(stack.length > 0);
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.danny02.metrics;
+
+import com.github.danny02.annotation.Medium;
+import com.github.danny02.annotation.Short;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+class MetricsIntegrationTest {
+
+    static class TimedTests {
+
+        @Test
+        @Short
+        void shortTest() {
+        }
+
+        @Test
+        @Short
+        void tooSlowTest() throws InterruptedException {
+            Thread.sleep(120);
+        }
+
+        @Test
+        @Medium
+        void mediumTest() throws InterruptedException {
+            Thread.sleep(90);
+        }
+    }
+
+    private static void runTimedTests() {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+                .request()
+                .selectors(
+                        selectClass(TimedTests.class)
+                          )
+                .configurationParameters(Map.of(
+                        "junit.jupiter.extensions.autodetection.enabled", "true"
+                                               ))
+                .build();
+
+        LauncherFactory.create().execute(request);
+    }
+
+    @Test
+    void shouldFeedMetricsSinks() {
+        RecordingMetricsSink.TIMED_TESTS.clear();
+
+        runTimedTests();
+
+        assertEquals(3, RecordingMetricsSink.TIMED_TESTS.size());
+        assertTrue(RecordingMetricsSink.TIMED_TESTS.contains("short:violation"));
+        Map<String, RuntimeHistogram> histograms = RecordingMetricsSink.lastRun;
+        assertEquals(2, histograms.get("short").count());
+        assertEquals(1, histograms.get("medium").count());
+    }
+
+    @Test
+    void shouldCommitFlightRecorderEvents() throws IOException {
+        Path file = Files.createTempFile("timelimit", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.github.danny02.timelimit.TestTimed");
+            recording.enable("com.github.danny02.timelimit.BoundViolated");
+            recording.enable("com.github.danny02.timelimit.CategorySuggested");
+            recording.start();
+
+            runTimedTests();
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(3, count(events, "TestTimed"));
+            assertEquals(1, count(events, "BoundViolated"));
+            assertEquals(1, count(events, "CategorySuggested"));
+            RecordedEvent suggestion = events.stream()
+                                             .filter(e -> e.getEventType().getName().endsWith("CategorySuggested"))
+                                             .findFirst()
+                                             .get();
+            assertEquals("medium", suggestion.getString("suggestedCategory"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals("com.github.danny02.timelimit." + name)).count();
+    }
+}
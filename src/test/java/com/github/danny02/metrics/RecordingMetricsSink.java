@@ -0,0 +1,23 @@
+package com.github.danny02.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Registered as a service for the tests, keeps what the last run reported.
+ */
+public class RecordingMetricsSink implements MetricsSink {
+    static final ConcurrentLinkedQueue<String> TIMED_TESTS = new ConcurrentLinkedQueue<>();
+
+    static volatile Map<String, RuntimeHistogram> lastRun;
+
+    @Override
+    public void testTimed(String testId, String category, long runtimeNanos, String verdict) {
+        TIMED_TESTS.add(category + ":" + verdict);
+    }
+
+    @Override
+    public void runFinished(Map<String, RuntimeHistogram> histograms) {
+        lastRun = histograms;
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.danny02.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RuntimeHistogramTest {
+
+    @Test
+    void shouldBucketByPowersOfTwo() {
+        assertEquals(0, RuntimeHistogram.bucket(0));
+        assertEquals(1, RuntimeHistogram.bucket(1));
+        assertEquals(2, RuntimeHistogram.bucket(2));
+        assertEquals(2, RuntimeHistogram.bucket(3));
+        assertEquals(11, RuntimeHistogram.bucket(1024));
+        assertEquals(63, RuntimeHistogram.bucket(Long.MAX_VALUE));
+        assertEquals(1023, RuntimeHistogram.bucketUpperNanos(10));
+    }
+
+    @Test
+    void shouldEstimatePercentilesFromBuckets() {
+        RuntimeHistogram histogram = new RuntimeHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000_000);
+        }
+
+        assertEquals(100, histogram.count());
+        assertEquals(90 * 100 + 10 * 1_000_000, histogram.sumNanos());
+        assertEquals(127, histogram.percentile(0.5));
+        assertEquals(127, histogram.percentile(0.9));
+        assertEquals((1 << 20) - 1, histogram.percentile(0.95));
+    }
+
+    @Test
+    void shouldRejectPercentileOfEmptyHistogram() {
+        assertThrows(IllegalStateException.class, () -> new RuntimeHistogram().percentile(0.5));
+    }
+}
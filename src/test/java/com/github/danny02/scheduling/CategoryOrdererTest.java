@@ -0,0 +1,118 @@
+package com.github.danny02.scheduling;
+
+import com.github.danny02.annotation.Long;
+import com.github.danny02.annotation.Medium;
+import com.github.danny02.annotation.Short;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+class CategoryOrdererTest {
+
+    static class MixedCategories {
+
+        @Test
+        @Long
+        void longTest() {
+        }
+
+        @Test
+        @Short
+        void shortTest() {
+        }
+
+        @Test
+        void uncategorizedTest() {
+        }
+
+        @Test
+        @Medium
+        void mediumTest() {
+        }
+    }
+
+    @Long
+    static class LongClass {
+        @Test
+        void test() {
+        }
+    }
+
+    @Short
+    static class ShortClass {
+        @Test
+        void test() {
+        }
+    }
+
+    @Test
+    void shouldRunShortestMethodsFirst() {
+        List<String> order = execute(Map.of("junit.jupiter.testmethod.order.default",
+                                            CategoryMethodOrderer.class.getName()),
+                                     MixedCategories.class);
+
+        assertEquals(asList("uncategorizedTest", "shortTest", "mediumTest", "longTest"), order);
+    }
+
+    @Test
+    void shouldRunLongestMethodsFirst() {
+        List<String> order = execute(Map.of("junit.jupiter.testmethod.order.default",
+                                            CategoryMethodOrderer.class.getName(),
+                                            "com.github.danny02.timelimit.order", "longest-first"),
+                                     MixedCategories.class);
+
+        assertEquals(asList("longTest", "mediumTest", "shortTest", "uncategorizedTest"), order);
+    }
+
+    @Test
+    void shouldRunShortestClassesFirst() {
+        List<String> order = execute(Map.of("junit.jupiter.testclass.order.default",
+                                            CategoryClassOrderer.class.getName()),
+                                     LongClass.class, ShortClass.class);
+
+        assertEquals(asList(ShortClass.class.getName(), LongClass.class.getName()), order);
+    }
+
+    private static List<String> execute(Map<String, String> configuration, Class<?>... testClasses) {
+        LauncherDiscoveryRequestBuilder builder = LauncherDiscoveryRequestBuilder
+                .request()
+                .configurationParameters(configuration);
+        for (Class<?> testClass : testClasses) {
+            builder.selectors(selectClass(testClass));
+        }
+        LauncherDiscoveryRequest request = builder.build();
+
+        List<String> order = new ArrayList<>();
+        Launcher     launcher = LauncherFactory.create();
+        launcher.execute(request, new TestExecutionListener() {
+            @Override
+            public void executionStarted(TestIdentifier identifier) {
+                identifier.getSource().ifPresent(source -> {
+                    if (testClasses.length == 1 && source instanceof MethodSource) {
+                        order.add(((MethodSource) source).getMethodName());
+                    }
+                    if (testClasses.length > 1 && source instanceof ClassSource) {
+                        order.add(((ClassSource) source).getClassName());
+                    }
+                });
+            }
+        });
+        return order;
+    }
+}
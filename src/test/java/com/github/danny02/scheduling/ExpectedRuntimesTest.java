@@ -0,0 +1,48 @@
+package com.github.danny02.scheduling;
+
+import com.github.danny02.annotation.Short;
+import com.github.danny02.annotation.TimeLimit;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpectedRuntimesTest {
+
+    static class CategorizedTests {
+        @Test
+        @Short
+        void shortTest() {
+        }
+
+        @Test
+        @TimeLimit("unknown")
+        void unknownCategoryTest() {
+        }
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return CategorizedTests.class.getDeclaredMethod(name);
+    }
+
+    @Test
+    void shouldEstimateFromTheBoundsOfTheCategory() throws NoSuchMethodException {
+        ExpectedRuntimes runtimes = ExpectedRuntimes.fromParameters(key -> Optional.empty());
+
+        assertEquals(MILLISECONDS.toNanos(50), runtimes.expectedNanos(method("shortTest")));
+    }
+
+    @Test
+    void shouldNotHideMalformedBounds() throws NoSuchMethodException {
+        Map<String, String> parameters = Map.of("com.github.danny02.timeout.unknown.lower", "10");
+        ExpectedRuntimes    runtimes   = ExpectedRuntimes.fromParameters(key -> Optional.ofNullable(parameters.get(key)));
+
+        Method unknownCategoryTest = method("unknownCategoryTest");
+        assertThrows(RuntimeException.class, () -> runtimes.expectedNanos(unknownCategoryTest));
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.danny02.scheduling;
+
+import com.github.danny02.annotation.Long;
+import com.github.danny02.annotation.Medium;
+import com.github.danny02.annotation.Short;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+class TestPlanShardingTest {
+
+    @Long
+    static class LongTests {
+        @Test
+        void first() {
+        }
+
+        @Test
+        void second() {
+        }
+    }
+
+    @Medium
+    static class MediumTests {
+        @Test
+        void first() {
+        }
+    }
+
+    @Short
+    static class ShortTests {
+        @Test
+        void first() {
+        }
+    }
+
+    static class UncategorizedTests {
+        @Test
+        void first() {
+        }
+
+        @Test
+        void second() {
+        }
+
+        @Test
+        void third() {
+        }
+    }
+
+    @Long
+    static class WithNested {
+        @Test
+        void outer() {
+        }
+
+        @Nested
+        class Inner {
+            @Test
+            void inner() {
+            }
+        }
+    }
+
+    ExpectedRuntimes runtimes = ExpectedRuntimes.fromParameters(key -> Optional.empty());
+
+    @Test
+    void shouldBalanceShardsByExpectedRuntime() {
+        List<Shard> shards = TestPlanSharding.partition(discover(), 2, runtimes);
+
+        assertEquals(2, shards.size());
+        assertEquals(List.of(LongTests.class.getName()), shards.get(0).getClassNames());
+        assertEquals(List.of(MediumTests.class.getName(), ShortTests.class.getName()), shards.get(1).getClassNames());
+    }
+
+    @Test
+    void shouldExpectUncategorizedTestsToTakeTheLongestBound() {
+        TestPlan plan = LauncherFactory.create().discover(LauncherDiscoveryRequestBuilder
+                                                                  .request()
+                                                                  .selectors(selectClass(LongTests.class),
+                                                                             selectClass(UncategorizedTests.class),
+                                                                             selectClass(ShortTests.class))
+                                                                  .build());
+
+        List<Shard> shards = TestPlanSharding.partition(plan, 2, runtimes);
+
+        assertEquals(List.of(UncategorizedTests.class.getName()), shards.get(0).getClassNames());
+        assertEquals(List.of(LongTests.class.getName(), ShortTests.class.getName()), shards.get(1).getClassNames());
+    }
+
+    @Test
+    void shouldKeepNestedTestsWithTheirEnclosingClass() {
+        TestPlan plan = LauncherFactory.create().discover(LauncherDiscoveryRequestBuilder
+                                                                  .request()
+                                                                  .selectors(selectClass(WithNested.class))
+                                                                  .build());
+
+        List<Shard> shards = TestPlanSharding.partition(plan, 2, runtimes);
+
+        assertEquals(List.of(WithNested.class.getName()), shards.get(0).getClassNames());
+    }
+
+    @Test
+    void shouldRejectInvalidShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> TestPlanSharding.partition(discover(), 0, runtimes));
+    }
+
+    private static TestPlan discover() {
+        return LauncherFactory.create().discover(LauncherDiscoveryRequestBuilder
+                                                         .request()
+                                                         .selectors(selectClass(LongTests.class),
+                                                                    selectClass(MediumTests.class),
+                                                                    selectClass(ShortTests.class))
+                                                         .build());
+    }
+}
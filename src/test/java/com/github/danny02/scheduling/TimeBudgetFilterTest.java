@@ -0,0 +1,160 @@
+package com.github.danny02.scheduling;
+
+import com.github.danny02.annotation.Long;
+import com.github.danny02.annotation.Medium;
+import com.github.danny02.annotation.Short;
+import com.github.danny02.extension.RuntimeHistory;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.time.Duration.ofMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+class TimeBudgetFilterTest {
+
+    static class MixedTests {
+        @Test
+        @Short
+        void firstShort() {
+        }
+
+        @Test
+        @Short
+        void secondShort() {
+        }
+
+        @Short
+        @RepeatedTest(3)
+        void repeatedShort() {
+        }
+
+        @Test
+        @Medium
+        void medium() {
+        }
+
+        @Test
+        @Long
+        void longTest() {
+        }
+    }
+
+    static class UnknownRuntimeTests {
+        @Test
+        @Short
+        void shortTest() {
+        }
+
+        @Test
+        void uncategorized() {
+        }
+
+        @Short
+        @RepeatedTest(3)
+        void repeatedShort() {
+        }
+    }
+
+    ExpectedRuntimes runtimes = ExpectedRuntimes.fromParameters(key -> Optional.empty());
+
+    private static Set<String> selectedMethods(PostDiscoveryFilter filter) {
+        return selectedMethods(MixedTests.class, filter);
+    }
+
+    private static Set<String> selectedMethods(Class<?> testClass, PostDiscoveryFilter filter) {
+        TestPlan plan = LauncherFactory.create().discover(LauncherDiscoveryRequestBuilder
+                                                                  .request()
+                                                                  .selectors(selectClass(testClass))
+                                                                  .filters(filter)
+                                                                  .build());
+        return plan.getRoots()
+                   .stream()
+                   .flatMap(root -> plan.getDescendants(root).stream())
+                   .filter(id -> plan.getChildren(id).isEmpty() && id.getSource().isPresent())
+                   .map(TestIdentifier::getDisplayName)
+                   .filter(name -> name.endsWith("()"))
+                   .collect(Collectors.toSet());
+    }
+
+    @Test
+    void shouldSelectShortestTestsFittingIntoBudget() {
+        assertEquals(Set.of("firstShort()", "secondShort()"),
+                     selectedMethods(new TimeBudgetFilter(ofMillis(200), runtimes)));
+    }
+
+    @Test
+    void shouldChargeEveryRepetition() {
+        assertEquals(Set.of("firstShort()", "secondShort()", "repeatedShort()"),
+                     selectedMethods(new TimeBudgetFilter(ofMillis(250), runtimes)));
+    }
+
+    @Test
+    void shouldSelectLongerTestsWithLargerBudget() {
+        assertEquals(Set.of("firstShort()", "secondShort()", "repeatedShort()", "medium()"),
+                     selectedMethods(new TimeBudgetFilter(ofMillis(600), runtimes)));
+    }
+
+    @Test
+    void shouldExpectTheLongestBoundForTestsOfUnknownRuntime() {
+        assertEquals(Set.of("shortTest()", "repeatedShort()"),
+                     selectedMethods(UnknownRuntimeTests.class, new TimeBudgetFilter(ofMillis(1000), runtimes)));
+        assertEquals(Set.of("shortTest()", "repeatedShort()", "uncategorized()"),
+                     selectedMethods(UnknownRuntimeTests.class, new TimeBudgetFilter(ofMillis(1800), runtimes)));
+    }
+
+    @Test
+    void shouldSumTheRecordedInvocationsOfTemplates() throws IOException {
+        Path directory = Files.createTempDirectory("runtime-history");
+        try {
+            String template = "[engine:junit-jupiter]/[class:" + UnknownRuntimeTests.class.getName() + "]" +
+                              "/[test-template:repeatedShort()]";
+            try (RuntimeHistory history = RuntimeHistory.open(directory)) {
+                for (int invocation = 1; invocation <= 3; invocation++) {
+                    history.record(template + "/[test-template-invocation:#" + invocation + "]", "short",
+                                   MILLISECONDS.toNanos(10));
+                }
+            }
+            Map<String, String> parameters = Map.of(TimeBudgetFilter.BUDGET_PARAMETER, "100",
+                                                    TimeBudgetFilter.HISTORY_PARAMETER, directory.toString());
+
+            // 30ms recorded instead of three times 50ms for a short test
+            assertEquals(Set.of("shortTest()", "repeatedShort()"),
+                         selectedMethods(UnknownRuntimeTests.class, TimeBudgetFilter.fromParameters(
+                                 key -> Optional.ofNullable(parameters.get(key)))));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    void shouldSelectEverythingWithoutBudget() {
+        assertEquals(5, selectedMethods(TimeBudgetFilter.fromParameters(key -> Optional.empty())).size());
+    }
+
+    @Test
+    void shouldReadBudgetFromParameters() {
+        Map<String, String> parameters = Map.of(TimeBudgetFilter.BUDGET_PARAMETER, "100");
+
+        assertEquals(Set.of("firstShort()", "secondShort()"),
+                     selectedMethods(TimeBudgetFilter.fromParameters(key -> Optional.ofNullable(parameters.get(key)))));
+    }
+}